@@ -1,11 +1,9 @@
 /// src/main/java/com/example/proyectoProgramacion/ProyectoProgramacionApplication.java
 package com.example.proyectoProgramacion;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
@@ -25,11 +23,6 @@ public class ProyectoProgramacionApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(ProyectoProgramacionApplication.class, args);
 	}
-
-	@Bean
-	public ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
 }
 
 
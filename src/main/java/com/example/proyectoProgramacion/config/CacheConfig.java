@@ -0,0 +1,34 @@
+package com.example.proyectoProgramacion.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las cachés en memoria.
+ * Cada nombre usado en {@code @Cacheable}/{@code @CacheEvict} tiene su propio tamaño máximo,
+ * tiempo de vida y estadísticas; los nombres sin configuración usan la especificación por defecto.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeineSpec(CaffeineSpec.parse(cacheProperties.getDefaultSpec()));
+
+        // Registrar las cachés conocidas al arrancar para que Actuator publique sus métricas
+        cacheProperties.getSpecs().forEach((nombre, spec) ->
+                cacheManager.registerCustomCache(nombre, Caffeine.from(spec).build()));
+
+        // Los put y evict hechos dentro de una transacción se aplican al confirmarla: si se revierte,
+        // la caché (p. ej. carritoUsuario) no queda con datos que nunca llegaron a la base de datos
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.proyectoProgramacion.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Propiedades de las cachés en memoria de la aplicación.
+ * Cada especificación usa el formato de CaffeineSpec, por ejemplo
+ * {@code maximumSize=500,expireAfterWrite=5m,recordStats}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Especificación aplicada a las cachés que no tienen una propia.
+     */
+    private String defaultSpec = "maximumSize=500,expireAfterWrite=5m,recordStats";
+
+    /**
+     * Especificaciones por nombre de caché.
+     */
+    private Map<String, String> specs = new LinkedHashMap<>();
+
+    public String getDefaultSpec() {
+        return defaultSpec;
+    }
+
+    public void setDefaultSpec(String defaultSpec) {
+        this.defaultSpec = defaultSpec;
+    }
+
+    public Map<String, String> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, String> specs) {
+        this.specs = specs;
+    }
+}
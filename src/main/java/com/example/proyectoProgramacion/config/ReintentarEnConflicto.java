@@ -0,0 +1,29 @@
+package com.example.proyectoProgramacion.config;
+
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reintenta un método transaccional solo cuando falla por un conflicto de versión
+ * ({@code @Version}) con otra transacción concurrente.
+ * <p>Hasta 4 intentos con espera exponencial aleatoria entre 20 y 400 ms, para que las
+ * peticiones que chocaron no vuelvan a coincidir. Cualquier otra excepción se propaga sin reintentar.</p>
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = {OptimisticLockingFailureException.class, OptimisticLockException.class},
+        maxAttempts = 4,
+        backoff = @Backoff(delay = 20, multiplier = 2, maxDelay = 400, random = true)
+)
+public @interface ReintentarEnConflicto {
+}
@@ -0,0 +1,15 @@
+package com.example.proyectoProgramacion.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Habilita los reintentos declarados con {@code @Retryable}; hoy solo los conflictos de bloqueo
+ * optimista ({@link ReintentarEnConflicto}).
+ * El interceptor de reintentos se ejecuta por fuera del transaccional, así que cada
+ * intento abre una transacción nueva.
+ */
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
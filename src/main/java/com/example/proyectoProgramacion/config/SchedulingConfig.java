@@ -0,0 +1,13 @@
+package com.example.proyectoProgramacion.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas con {@code @Scheduled}
+ * (purga y sincronización de tokens revocados, entre otras).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,6 +2,8 @@ package com.example.proyectoProgramacion.config;
 
 import com.example.proyectoProgramacion.security.CustomAuthenticationEntryPoint;
 import com.example.proyectoProgramacion.security.JwtAuthenticationFilter;
+import com.example.proyectoProgramacion.service.interfaces.CarritoService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -16,6 +18,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import jakarta.servlet.http.HttpServletResponse;
@@ -28,6 +31,7 @@ import jakarta.servlet.http.HttpSession;
 import java.util.Arrays;
 import java.util.List;
 
+@Slf4j
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -44,7 +48,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, CarritoService carritoService) throws Exception {
         http
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf
@@ -94,7 +98,7 @@ public class SecurityConfig {
             .formLogin(form -> form
                 .loginPage("/login")
                 .loginProcessingUrl("/login")
-                .defaultSuccessUrl("/", true)
+                .successHandler(fusionarCarritoAlIniciarSesion(carritoService))
                 .failureUrl("/login?error")
                 .permitAll()
             )
@@ -160,6 +164,20 @@ public class SecurityConfig {
         );
     }
     
+    // Pasa el carrito de invitado al del usuario antes de redirigir. Se ejecuta después de migrar
+    // la sesión, que conserva el atributo con el que se localiza el carrito de invitado
+    private AuthenticationSuccessHandler fusionarCarritoAlIniciarSesion(CarritoService carritoService) {
+        return (request, response, authentication) -> {
+            try {
+                carritoService.fusionarCarritoSesionConUsuario(authentication.getName());
+            } catch (RuntimeException e) {
+                // Un fallo al fusionar el carrito no debe impedir el inicio de sesión
+                log.warn("No se pudo fusionar el carrito de sesión de {}", authentication.getName(), e);
+            }
+            response.sendRedirect(request.getContextPath() + determineTargetUrl(request, response));
+        };
+    }
+
     // Método simplificado para determinar la URL de redirección
     private String determineTargetUrl(HttpServletRequest request, HttpServletResponse response) {
         return "/";
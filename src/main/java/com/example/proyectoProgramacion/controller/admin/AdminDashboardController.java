@@ -1,12 +1,16 @@
 package com.example.proyectoProgramacion.controller.admin;
 
+import com.example.proyectoProgramacion.model.dto.admin.EstadisticasDashboardDTO;
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.model.dto.usuario.UsuarioDTO;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenDTO;
 import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import com.example.proyectoProgramacion.service.interfaces.UsuarioService;
 import com.example.proyectoProgramacion.service.interfaces.OrdenService;
 import com.example.proyectoProgramacion.service.interfaces.CategoriaService;
+import com.example.proyectoProgramacion.service.interfaces.DashboardService;
 import com.example.proyectoProgramacion.util.AppConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,22 +40,24 @@ public class AdminDashboardController {
     private final UsuarioService usuarioService;
     private final OrdenService ordenService;
     private final CategoriaService categoriaService;
+    private final DashboardService dashboardService;
 
     @GetMapping
     public String panelAdmin(Model model) {
         try {
-            // Obtener estadísticas para el panel de control
-            long totalProductos = productoService.obtenerTodosLosProductos(Pageable.unpaged()).getTotalElements();
-            long totalUsuarios = usuarioService.obtenerTodosLosUsuarios(Pageable.unpaged()).getTotalElements();
-            long totalOrdenes = ordenService.obtenerTodasLasOrdenes(Pageable.unpaged()).getTotalElements();
-            
+            // Obtener estadísticas para el panel de control con consultas de conteo y agregación
+            EstadisticasDashboardDTO estadisticas = dashboardService.obtenerEstadisticas();
+
             // Obtener las últimas órdenes
-            Pageable ultimasOrdenesPageable = PageRequest.of(0, 5, Sort.by("fechaCreacion").descending());
-            List<OrdenDTO> ultimasOrdenes = ordenService.obtenerTodasLasOrdenes(ultimasOrdenesPageable).getContent();
-            
-            model.addAttribute("totalProductos", totalProductos);
-            model.addAttribute("totalUsuarios", totalUsuarios);
-            model.addAttribute("totalOrdenes", totalOrdenes);
+            List<OrdenDTO> ultimasOrdenes = ordenService.obtenerOrdenesRecientes(5);
+
+            model.addAttribute("estadisticas", estadisticas);
+            model.addAttribute("totalProductos", estadisticas.getTotalProductos());
+            model.addAttribute("totalUsuarios", estadisticas.getTotalUsuarios());
+            model.addAttribute("totalOrdenes", estadisticas.getTotalOrdenes());
+            model.addAttribute("ingresosTotales", estadisticas.getIngresosTotales());
+            model.addAttribute("ordenesPorEstado", estadisticas.getOrdenesPorEstado());
+            model.addAttribute("productosStockBajo", estadisticas.getProductosStockBajo());
             model.addAttribute("ultimasOrdenes", ultimasOrdenes);
             
             return "admin/dashboard";
@@ -75,7 +81,7 @@ public class AdminDashboardController {
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, sortDirection, sort);
         
-        Page<ProductoDTO> productos = productoService.obtenerTodosLosProductos(pageable);
+        Page<ProductoResumenDTO> productos = productoService.obtenerTodosLosProductos(pageable);
         
         model.addAttribute("productos", productos);
         model.addAttribute("sort", sort);
@@ -171,7 +177,7 @@ public class AdminDashboardController {
     // Gestión de Órdenes
     @GetMapping("/ordenes")
     public String listarOrdenes(
-            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "size", defaultValue = "10") int size,
             @RequestParam(value = "sort", defaultValue = "fechaCreacion") String sort,
             @RequestParam(value = "direction", defaultValue = "desc") String direction,
@@ -179,14 +185,15 @@ public class AdminDashboardController {
         
         // Validar parámetros
         size = Math.min(size, 50);
-        page = Math.max(0, page);
         
         Sort.Direction sortDirection = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
-        Pageable pageable = PageRequest.of(page, size, sortDirection, sort);
         
-        Page<OrdenDTO> ordenes = ordenService.obtenerTodasLasOrdenes(pageable);
+        // Paginación por cursor: la página siguiente se pide con el token "siguiente", sin OFFSET ni conteo
+        PaginaCursorDTO<OrdenDTO> ordenes = ordenService.obtenerTodasLasOrdenesPorCursor(
+                cursor, Sort.by(sortDirection, sort), size);
         
         model.addAttribute("ordenes", ordenes);
+        model.addAttribute("size", size);
         model.addAttribute("sort", sort);
         model.addAttribute("direction", direction);
         model.addAttribute("pageSizes", new int[]{5, 10, 20, 50});
@@ -2,6 +2,7 @@ package com.example.proyectoProgramacion.controller.api;
 
 import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
@@ -28,7 +29,7 @@ public class AdminProductoController {
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Listar todos los productos", description = "Obtiene una lista paginada de todos los productos")
-    public ResponseEntity<Page<ProductoDTO>> listarProductos(
+    public ResponseEntity<Page<ProductoResumenDTO>> listarProductos(
             @PageableDefault(size = 10, sort = "nombre") Pageable pageable) {
         return ResponseEntity.ok(productoService.obtenerTodosLosProductos(pageable));
     }
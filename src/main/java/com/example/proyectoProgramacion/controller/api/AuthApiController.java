@@ -5,6 +5,7 @@ import com.example.proyectoProgramacion.model.dto.auth.LoginRequestDTO;
 import com.example.proyectoProgramacion.model.dto.auth.RegistroUsuarioDTO;
 import com.example.proyectoProgramacion.service.interfaces.AdminRegistrationService;
 import com.example.proyectoProgramacion.service.interfaces.AuthService;
+import com.example.proyectoProgramacion.service.interfaces.CarritoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -18,15 +19,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 /**
  * Controlador para la autenticación y registro de usuarios y administradores
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -35,6 +39,7 @@ public class AuthApiController {
 
     private final AuthService authService;
     private final AdminRegistrationService adminRegistrationService;
+    private final CarritoService carritoService;
 
     @Operation(summary = "Iniciar sesión", description = "Autentica un usuario y devuelve un token JWT")
     @ApiResponses(value = {
@@ -52,6 +57,16 @@ public class AuthApiController {
             HttpServletRequest request) {
         String ipAddress = request.getRemoteAddr();
         JwtAuthResponseDTO response = authService.autenticarUsuario(loginRequest, ipAddress);
+
+        // Si la petición trae una sesión con carrito de invitado, pasarlo al carrito del usuario;
+        // loginRequest puede traer el correo, el nombre real es el del usuario autenticado
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        try {
+            carritoService.fusionarCarritoSesionConUsuario(username);
+        } catch (RuntimeException e) {
+            // Un fallo al fusionar el carrito no debe impedir el inicio de sesión
+            log.warn("No se pudo fusionar el carrito de sesión de {}", username, e);
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -1,7 +1,9 @@
 package com.example.proyectoProgramacion.controller.api;
 
+import com.example.proyectoProgramacion.security.UsuarioIdResolver;
 import com.example.proyectoProgramacion.service.interfaces.OrdenService;
 import com.example.proyectoProgramacion.exception.BusinessException;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenRequestDTO;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +20,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -42,9 +45,11 @@ import com.example.proyectoProgramacion.model.enums.EstadoOrden;
 public class OrdenController {
 
     private final OrdenService ordenService;
+    private final UsuarioIdResolver usuarioIdResolver;
 
-    public OrdenController(OrdenService ordenService) {
+    public OrdenController(OrdenService ordenService, UsuarioIdResolver usuarioIdResolver) {
         this.ordenService = ordenService;
+        this.usuarioIdResolver = usuarioIdResolver;
     }
 
     @Operation(summary = "Listar órdenes del usuario", 
@@ -60,8 +65,21 @@ public class OrdenController {
             @Parameter(hidden = true) Authentication authentication,
             @Parameter(description = "Configuración de paginación", example = "{\"page\":0,\"size\":10,\"sort\":\"fechaCreacion,desc\"}")
             @PageableDefault(size = 10, sort = "fechaCreacion", direction = Sort.Direction.DESC) Pageable pageable) {
-        String username = authentication.getName();
-        return ResponseEntity.ok(ordenService.obtenerOrdenesPorUsuario(username, pageable));
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+        return ResponseEntity.ok(ordenService.obtenerOrdenesPorUsuario(usuarioId, pageable));
+    }
+
+    @Operation(summary = "Listar órdenes del usuario por cursor",
+               description = "Recorre las órdenes del usuario autenticado con un cursor opaco, sin contar el total")
+    @GetMapping(value = "/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PaginaCursorDTO<OrdenDTO>> listarOrdenesPorCursor(
+            @Parameter(hidden = true) Authentication authentication,
+            @Parameter(description = "Cursor devuelto en la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Órdenes por página") @RequestParam(defaultValue = "10") int size,
+            @SortDefault(sort = "fechaCreacion", direction = Sort.Direction.DESC) Sort sort) {
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+        return ResponseEntity.ok(ordenService.obtenerOrdenesPorUsuarioPorCursor(usuarioId, cursor, sort, size));
     }
 
     @Operation(summary = "Obtener orden por ID", 
@@ -92,7 +110,33 @@ public class OrdenController {
         return ResponseEntity.ok(orden);
     }
 
-    @Operation(summary = "Crear nueva orden", 
+    @Operation(summary = "Obtener orden por número",
+               description = "Obtiene una orden por el número que se muestra al cliente. Solo el propietario o un administrador pueden ver la orden.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Orden encontrada",
+                   content = @Content(mediaType = "application/json",
+                   schema = @Schema(implementation = OrdenDTO.class))),
+        @ApiResponse(responseCode = "403", description = "No autorizado para ver esta orden"),
+        @ApiResponse(responseCode = "404", description = "Orden no encontrada")
+    })
+    @GetMapping(value = "/numero/{numero}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<OrdenDTO> obtenerOrdenPorNumero(
+            @Parameter(description = "Número de la orden", required = true, example = "ORD-00DZ4X8K0G3F2")
+            @PathVariable String numero,
+            @Parameter(hidden = true) Authentication authentication) {
+
+        OrdenDTO orden = ordenService.obtenerOrdenPorNumero(numero);
+
+        if (!orden.getUsuario().equals(authentication.getName()) && authentication.getAuthorities().stream()
+                .noneMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            throw new BusinessException("No tiene permiso para ver esta orden");
+        }
+
+        return ResponseEntity.ok(orden);
+    }
+
+    @Operation(summary = "Crear nueva orden",
                description = "Crea una nueva orden a partir del carrito de compras del usuario autenticado")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Orden creada exitosamente",
@@ -103,7 +147,6 @@ public class OrdenController {
     })
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("isAuthenticated()")
-    @Transactional
     public ResponseEntity<OrdenDTO> crearOrden(
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "Datos necesarios para crear la orden",
@@ -113,11 +156,11 @@ public class OrdenController {
             @Valid @RequestBody OrdenRequestDTO ordenRequest,
             @Parameter(hidden = true) Authentication authentication) {
 
-        String username = authentication.getName();
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
 
         // Validar y crear la orden
         // Nota: Se asume que la validación del carrito se hace dentro de crearOrden
-        OrdenDTO nuevaOrden = ordenService.crearOrden(username, ordenRequest.getDireccionEnvio());
+        OrdenDTO nuevaOrden = ordenService.crearOrden(usuarioId, ordenRequest.getDireccionEnvio());
         return new ResponseEntity<>(nuevaOrden, HttpStatus.CREATED);
     }
 
@@ -157,6 +200,6 @@ public class OrdenController {
             throw new BusinessException("La orden no puede ser cancelada en su estado actual");
         }
 
-        return ResponseEntity.ok(ordenService.cancelarOrden(id, username));
+        return ResponseEntity.ok(ordenService.cancelarOrden(id, usuarioIdResolver.obtenerId(authentication)));
     }
 }
@@ -1,6 +1,9 @@
 package com.example.proyectoProgramacion.controller.api;
 
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
+import com.example.proyectoProgramacion.service.VersionCatalogo;
 import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,15 +15,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
 
 import com.example.proyectoProgramacion.model.enums.Categoria;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 
 @RestController
@@ -30,21 +36,27 @@ import java.util.List;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final VersionCatalogo versionCatalogo;
 
     @Autowired
-    public ProductoController(ProductoService productoService) {
+    public ProductoController(ProductoService productoService, VersionCatalogo versionCatalogo) {
         this.productoService = productoService;
+        this.versionCatalogo = versionCatalogo;
     }
 
     @GetMapping
-    @Cacheable(value = "productosCache", key = "#pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort + '_' + #nombre + '_' + #categoria + '_' + #precioMin + '_' + #precioMax")
     @Operation(summary = "Listar productos", description = "Obtiene una lista paginada de productos con filtros opcionales")
-    public ResponseEntity<Page<ProductoDTO>> listarProductos(
+    public ResponseEntity<Page<ProductoResumenDTO>> listarProductos(
             @PageableDefault(size = 12, sort = "nombre", direction = Sort.Direction.ASC) Pageable pageable,
             @Parameter(description = "Filtrar por nombre") @RequestParam(required = false) String nombre,
             @Parameter(description = "Filtrar por categoría") @RequestParam(required = false) String categoria,
             @Parameter(description = "Precio mínimo") @RequestParam(required = false) BigDecimal precioMin,
-            @Parameter(description = "Precio máximo") @RequestParam(required = false) BigDecimal precioMax) {
+            @Parameter(description = "Precio máximo") @RequestParam(required = false) BigDecimal precioMax,
+            WebRequest request) {
+
+        if (listadoVigente(request)) {
+            return null;
+        }
 
         // Validar parámetros de búsqueda
         if (precioMin != null && precioMax != null && precioMin.compareTo(precioMax) > 0) {
@@ -76,20 +88,53 @@ public class ProductoController {
         return ResponseEntity.ok(productoService.obtenerTodosLosProductos(pageable));
     }
 
+    @GetMapping("/cursor")
+    @Operation(summary = "Listar productos por cursor",
+               description = "Recorre el catálogo con un cursor opaco; cada página cuesta lo mismo sin importar su posición")
+    public ResponseEntity<PaginaCursorDTO<ProductoResumenDTO>> listarProductosPorCursor(
+            @Parameter(description = "Cursor devuelto en la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Productos por página") @RequestParam(defaultValue = "12") int size,
+            @SortDefault(sort = "fechaCreacion", direction = Sort.Direction.DESC) Sort sort,
+            WebRequest request) {
+        if (listadoVigente(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(productoService.obtenerProductosPorCursor(cursor, sort, size));
+    }
+
     @GetMapping("/{id}")
-    @Cacheable(value = "productoCache", key = "#id")
     @Operation(summary = "Obtener producto por ID", description = "Retorna un producto según su ID")
     @ApiResponse(responseCode = "200", description = "Producto encontrado")
+    @ApiResponse(responseCode = "304", description = "El producto no cambió desde la versión del cliente")
     @ApiResponse(responseCode = "404", description = "Producto no encontrado")
-    public ResponseEntity<ProductoDTO> obtenerProducto(@PathVariable Long id) {
-        return ResponseEntity.ok(productoService.obtenerProductoPorId(id));
+    public ResponseEntity<ProductoDTO> obtenerProducto(@PathVariable Long id, WebRequest request) {
+        // Con el ETag ya conocido se valida sin leer el producto; checkNotModified solo se llama
+        // una vez por petición, porque no sobrescribe las cabeceras que ya puso. El producto se lee
+        // sin la caché de servicio, que podría devolver una versión anterior a la del ETag
+        Optional<String> conocido = versionCatalogo.etagProducto(id);
+        if (conocido.isPresent()) {
+            if (request.checkNotModified(conocido.get(), versionCatalogo.ultimaModificacion())) {
+                return null;
+            }
+            return ResponseEntity.ok(productoService.obtenerProductoActual(id));
+        }
+
+        long versionLeida = versionCatalogo.version();
+        ProductoDTO producto = productoService.obtenerProductoActual(id);
+        String etag = versionCatalogo.registrarProducto(id, versionLeida, producto.getVersion());
+        if (request.checkNotModified(etag, versionCatalogo.ultimaModificacion())) {
+            return null;
+        }
+        return ResponseEntity.ok(producto);
     }
 
     @GetMapping("/destacados")
-    @Cacheable(value = "productosDestacadosCache")
     @Operation(summary = "Listar productos destacados", description = "Obtiene una lista de productos destacados")
-    public ResponseEntity<List<ProductoDTO>> listarProductosDestacados() {
-return ResponseEntity.ok(productoService.obtenerProductosDestacados(10)); // Usamos 10 como límite por defecto
+    public ResponseEntity<List<ProductoResumenDTO>> listarProductosDestacados(WebRequest request) {
+        if (listadoVigente(request)) {
+            return null;
+        }
+        return ResponseEntity.ok(productoService.obtenerProductosDestacados(10)); // Usamos 10 como límite por defecto
     }
 
     @GetMapping("/categorias")
@@ -100,11 +145,14 @@ return ResponseEntity.ok(productoService.obtenerProductosDestacados(10)); // Usa
     }
 
     @GetMapping("/categoria/{categoria}")
-    @Cacheable(value = "productosPorCategoriaCache", key = "#categoria + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
     @Operation(summary = "Listar productos por categoría", description = "Obtiene una lista paginada de productos por categoría")
-    public ResponseEntity<Page<ProductoDTO>> listarProductosPorCategoria(
+    public ResponseEntity<Page<ProductoResumenDTO>> listarProductosPorCategoria(
             @PathVariable String categoria,
-            @PageableDefault(size = 12) Pageable pageable) {
+            @PageableDefault(size = 12) Pageable pageable,
+            WebRequest request) {
+        if (listadoVigente(request)) {
+            return null;
+        }
         try {
             Categoria catEnum = Categoria.valueOf(categoria.toUpperCase());
             return ResponseEntity.ok(productoService.obtenerProductosPorCategoria(catEnum, pageable));
@@ -115,11 +163,21 @@ return ResponseEntity.ok(productoService.obtenerProductosDestacados(10)); // Usa
 
     @GetMapping("/buscar")
     @Operation(summary = "Buscar productos", description = "Busca productos por término de búsqueda")
-    public ResponseEntity<Page<ProductoDTO>> buscarProductos(
+    public ResponseEntity<Page<ProductoResumenDTO>> buscarProductos(
             @Parameter(description = "Término de búsqueda") @RequestParam String q,
-            @PageableDefault(size = 12) Pageable pageable) {
+            @PageableDefault(size = 12) Pageable pageable,
+            WebRequest request) {
+        if (listadoVigente(request)) {
+            return null;
+        }
         return ResponseEntity.ok(productoService.buscarProductos(q, pageable));
     }
-}
-
 
+    /**
+     * Valida la petición contra la versión del catálogo. Si el cliente ya tiene la versión actual,
+     * Spring responde 304 sin cuerpo y el listado no se consulta.
+     */
+    private boolean listadoVigente(WebRequest request) {
+        return request.checkNotModified(versionCatalogo.etagCatalogo(null), versionCatalogo.ultimaModificacion());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.proyectoProgramacion.controller.api;
 
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.usuario.UsuarioDTO;
 import com.example.proyectoProgramacion.service.interfaces.UsuarioService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,6 +17,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -48,6 +50,15 @@ public class UserApiController {
         return ResponseEntity.ok(usuarioService.obtenerTodosLosUsuarios(pageable));
     }
 
+    @Operation(summary = "Listar usuarios por cursor", description = "Recorre los usuarios con un cursor opaco, sin contar el total")
+    @GetMapping(value = "/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PaginaCursorDTO<UsuarioDTO>> listarUsuariosPorCursor(
+            @Parameter(description = "Cursor devuelto en la página anterior") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Usuarios por página") @RequestParam(defaultValue = "10") int size,
+            @SortDefault(sort = "username", direction = Sort.Direction.ASC) Sort sort) {
+        return ResponseEntity.ok(usuarioService.obtenerUsuariosPorCursor(cursor, sort, size));
+    }
+
     @Operation(summary = "Obtener usuario por nombre de usuario", description = "Obtiene los detalles de un usuario específico por su nombre de usuario")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Usuario encontrado",
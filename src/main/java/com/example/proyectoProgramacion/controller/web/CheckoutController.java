@@ -8,6 +8,7 @@ import com.example.proyectoProgramacion.model.dto.pago.PagoRequestDTO;
 import com.example.proyectoProgramacion.model.dto.pago.PagoResponseDTO;
 import com.example.proyectoProgramacion.exception.BusinessException;
 import com.example.proyectoProgramacion.model.enums.EstadoOrden;
+import com.example.proyectoProgramacion.security.UsuarioIdResolver;
 import com.example.proyectoProgramacion.service.interfaces.CarritoService;
 import com.example.proyectoProgramacion.service.interfaces.OrdenService;
 import com.example.proyectoProgramacion.service.interfaces.PagoService;
@@ -33,22 +34,25 @@ public class CheckoutController {
     private final CarritoService carritoService;
     private final OrdenService ordenService;
     private final PagoService pagoService;
+    private final UsuarioIdResolver usuarioIdResolver;
 
     @Autowired
     public CheckoutController(CarritoService carritoService, 
                             OrdenService ordenService,
-                            PagoService pagoService) {
+                            PagoService pagoService,
+                            UsuarioIdResolver usuarioIdResolver) {
         this.carritoService = carritoService;
         this.ordenService = ordenService;
         this.pagoService = pagoService;
+        this.usuarioIdResolver = usuarioIdResolver;
     }
 
     @GetMapping
     public String mostrarCheckout(Model model, Authentication authentication) {
-        String username = authentication.getName();
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
 
         // Validar estado del carrito antes del checkout
-        CarritoDTO carrito = carritoService.obtenerCarritoPorUsuario(username);
+        CarritoDTO carrito = carritoService.obtenerCarritoPorUsuario(usuarioId);
         if (carrito == null || carrito.getItems() == null || carrito.getItems().isEmpty()) {
             model.addAttribute("error", "No hay productos en el carrito para procesar");
             return "redirect:/carrito";
@@ -86,9 +90,8 @@ public class CheckoutController {
             Model model) {
 
         if (result.hasErrors()) {
-            String username = authentication.getName();
             model.addAttribute("direcciones", List.of());
-            model.addAttribute("carrito", carritoService.obtenerCarritoPorUsuario(username));
+            model.addAttribute("carrito", carritoService.obtenerCarritoPorUsuario(usuarioIdResolver.obtenerId(authentication)));
             model.addAttribute("ordenRequest", new OrdenRequestDTO());
             return "checkout/datos";
         }
@@ -106,7 +109,6 @@ public class CheckoutController {
     }
 
     @PostMapping("/confirmar")
-    @Transactional
     public String confirmarOrden(
             @Valid @ModelAttribute("ordenRequest") OrdenRequestDTO ordenRequest,
             BindingResult result,
@@ -114,24 +116,24 @@ public class CheckoutController {
             RedirectAttributes redirectAttributes,
             Model model) {
 
-        String username = authentication.getName();
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
 
         if (result.hasErrors()) {
             model.addAttribute("direcciones", List.of());
-            model.addAttribute("carrito", carritoService.obtenerCarritoPorUsuario(username));
+            model.addAttribute("carrito", carritoService.obtenerCarritoPorUsuario(usuarioId));
             return "checkout/datos";
         }
 
         try {
             // Validar que el carrito no esté vacío
-            CarritoDTO carrito = carritoService.obtenerCarritoPorUsuario(username);
+            CarritoDTO carrito = carritoService.obtenerCarritoPorUsuario(usuarioId);
             if (carrito == null || carrito.getItems() == null || carrito.getItems().isEmpty()) {
                 throw new BusinessException("El carrito está vacío");
             }
 
             // Crear la orden usando el método de OrdenService
             String direccionEnvio = ordenRequest.getDireccionEnvio();
-            OrdenDTO orden = ordenService.crearOrden(username, direccionEnvio);
+            OrdenDTO orden = ordenService.crearOrden(usuarioId, direccionEnvio);
 
             // Redireccionar a la página de pago
             return "redirect:/checkout/pago/" + orden.getId();
@@ -146,14 +148,14 @@ public class CheckoutController {
 
     @GetMapping("/pago/{ordenId}")
     public String mostrarPago(@PathVariable Long ordenId, Model model, Authentication authentication) {
-        String username = authentication.getName();
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
 
         try {
             // Obtener la orden por ID
             OrdenDTO orden = ordenService.obtenerOrdenPorId(ordenId);
             
             // Verificar que la orden pertenece al usuario actual
-            if (!ordenService.verificarPropiedadOrden(ordenId, username)) {
+            if (!ordenService.verificarPropiedadOrden(ordenId, usuarioId)) {
                 throw new BusinessException("No tiene permiso para ver esta orden");
             }
 
@@ -187,7 +189,7 @@ public class CheckoutController {
             OrdenDTO orden = ordenService.obtenerOrdenPorId(ordenId);
             
             // 2. Verificar que la orden pertenece al usuario actual
-            if (!ordenService.verificarPropiedadOrden(ordenId, username)) {
+            if (!ordenService.verificarPropiedadOrden(ordenId, usuarioIdResolver.obtenerId(authentication))) {
                 throw new BusinessException("No tiene permiso para pagar esta orden");
             }
 
@@ -221,14 +223,14 @@ public class CheckoutController {
 
     @GetMapping("/confirmacion/{ordenId}")
     public String mostrarConfirmacion(@PathVariable Long ordenId, Model model, Authentication authentication) {
-        String username = authentication.getName();
+        Long usuarioId = usuarioIdResolver.obtenerId(authentication);
 
         try {
             // Obtener la orden por ID
             OrdenDTO orden = ordenService.obtenerOrdenPorId(ordenId);
             
             // Verificar que la orden pertenece al usuario actual
-            if (!ordenService.verificarPropiedadOrden(ordenId, username)) {
+            if (!ordenService.verificarPropiedadOrden(ordenId, usuarioId)) {
                 throw new BusinessException("No tiene permiso para ver esta orden");
             }
 
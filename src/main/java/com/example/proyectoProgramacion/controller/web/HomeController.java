@@ -2,7 +2,7 @@ package com.example.proyectoProgramacion.controller.web;
 
 import com.example.proyectoProgramacion.model.enums.Categoria;
 import com.example.proyectoProgramacion.model.dto.producto.CategoriaDTO;
-import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.service.interfaces.CategoriaService;
 import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import lombok.RequiredArgsConstructor;
@@ -40,14 +40,13 @@ public class HomeController {
             List<CategoriaDTO> categorias = categoriaService.obtenerTodasLasCategorias();
             model.addAttribute("categorias", categorias);
             
-            // Obtener productos destacados (con oferta)
-            Pageable destacadosPageable = PageRequest.of(0, PRODUCTOS_DESTACADOS, Sort.by("fechaCreacion").descending());
-            List<ProductoDTO> productosDestacados = productoService.obtenerProductosEnOferta(destacadosPageable).getContent();
+            // Obtener productos destacados (lista precalculada, sin consultar la base de datos)
+            List<ProductoResumenDTO> productosDestacados = productoService.obtenerProductosDestacados(PRODUCTOS_DESTACADOS);
             model.addAttribute("productosDestacados", productosDestacados);
 
             // Obtener productos nuevos
             Pageable nuevosPageable = PageRequest.of(0, PRODUCTOS_NUEVOS, Sort.by("fechaCreacion").descending());
-            List<ProductoDTO> productosNuevos = productoService.obtenerTodosLosProductos(nuevosPageable).getContent();
+            List<ProductoResumenDTO> productosNuevos = productoService.obtenerProductosSinTotal(nuevosPageable).getContent();
             model.addAttribute("productosNuevos", productosNuevos);
 
             // Metadatos para SEO
@@ -1,12 +1,15 @@
 package com.example.proyectoProgramacion.controller.web;
 
+import com.example.proyectoProgramacion.model.dto.producto.CatalogoFacetadoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.model.enums.Categoria;
 import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
+import com.example.proyectoProgramacion.service.VersionCatalogo;
 import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import com.example.proyectoProgramacion.service.interfaces.CategoriaService;
 import com.example.proyectoProgramacion.model.dto.producto.CategoriaDTO;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import com.example.proyectoProgramacion.util.AppConstants;
@@ -16,8 +19,10 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.security.Principal;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,10 +33,13 @@ public class TiendaController {
 
     private final ProductoService productoService;
     private final CategoriaService categoriaService;
+    private final VersionCatalogo versionCatalogo;
 
-    public TiendaController(ProductoService productoService, CategoriaService categoriaService) {
+    public TiendaController(ProductoService productoService, CategoriaService categoriaService,
+                            VersionCatalogo versionCatalogo) {
         this.productoService = productoService;
         this.categoriaService = categoriaService;
+        this.versionCatalogo = versionCatalogo;
     }
 
     @GetMapping
@@ -41,15 +49,28 @@ public class TiendaController {
             @RequestParam(required = false) String categoria,
             @RequestParam(required = false) BigDecimal precioMin,
             @RequestParam(required = false) BigDecimal precioMax,
+            @RequestParam(required = false) String tipoPrenda,
+            @RequestParam(required = false) String franquicia,
+            @RequestParam(required = false) String talla,
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) String material,
             @RequestParam(required = false) String ordenar,
+            Principal principal,
+            WebRequest request,
             Model model) {
 
+        if (paginaVigente(principal, request)) {
+            return null;
+        }
+
         try {
             // Validar y ajustar el tamaño de página
             int pageSize = Math.min(pageable.getPageSize(), 24); // Tamaño máximo de 24 productos por página
             
             // Configurar ordenación
-            Sort sort = Sort.by(Sort.Direction.ASC, "nombre"); // Orden por defecto
+            // Orden por defecto: por nombre, o por relevancia cuando se busca por texto
+            boolean busquedaPorTexto = nombre != null && !nombre.isEmpty();
+            Sort sort = busquedaPorTexto ? Sort.unsorted() : Sort.by(Sort.Direction.ASC, "nombre");
             if (ordenar != null && !ordenar.isEmpty()) {
                 switch (ordenar.toLowerCase()) {
                     case "precio-asc":
@@ -75,33 +96,33 @@ public class TiendaController {
                 sort
             );
 
-            Page<ProductoDTO> productos;
-            
-            // Aplicar filtros según los parámetros
-            if (nombre != null && !nombre.isEmpty()) {
-                productos = productoService.buscarProductos(nombre, pageableOrdenado);
-            } else if (categoria != null && !categoria.isEmpty()) {
+            // Todos los filtros se combinan en una sola consulta, que devuelve también los recuentos por faceta
+            FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+            filtro.setTexto(nombre);
+            if (categoria != null && !categoria.isEmpty()) {
                 try {
-                    Categoria catEnum = Categoria.valueOf(categoria.toUpperCase());
-                    productos = productoService.obtenerProductosPorCategoria(catEnum, pageableOrdenado);
+                    filtro.setCategoria(Categoria.valueOf(categoria.toUpperCase()));
                 } catch (IllegalArgumentException e) {
                     log.warn("Categoría no válida: {}", categoria, e);
                     model.addAttribute("error", "Categoría no válida: " + categoria);
                     categoria = null; // Resetear el filtro de categoría
-                    productos = productoService.obtenerTodosLosProductos(pageableOrdenado);
                 }
-            } else if (precioMin != null || precioMax != null) {
-                // Validar parámetros de búsqueda
-                if (precioMin != null && precioMax != null && precioMin.compareTo(precioMax) > 0) {
-                    model.addAttribute("error", "El precio mínimo no puede ser mayor que el precio máximo");
-                    precioMin = null;
-                    precioMax = null;
-                }
-                productos = productoService.filtrarPorPrecio(precioMin, precioMax, pageableOrdenado);
-            } else {
-                // Sin filtros, obtener todos los productos
-                productos = productoService.obtenerTodosLosProductos(pageableOrdenado);
             }
+            if (precioMin != null && precioMax != null && precioMin.compareTo(precioMax) > 0) {
+                model.addAttribute("error", "El precio mínimo no puede ser mayor que el precio máximo");
+                precioMin = null;
+                precioMax = null;
+            }
+            filtro.setPrecioMin(precioMin);
+            filtro.setPrecioMax(precioMax);
+            filtro.setTipoPrenda(tipoPrenda);
+            filtro.setFranquicia(franquicia);
+            filtro.setTalla(talla);
+            filtro.setColor(color);
+            filtro.setMaterial(material);
+
+            CatalogoFacetadoDTO catalogo = productoService.filtrarCatalogo(filtro, pageableOrdenado);
+            Page<ProductoResumenDTO> productos = catalogo.getProductos();
 
             // Obtener todas las categorías para el filtro
             List<CategoriaDTO> categorias = categoriaService.obtenerTodasLasCategorias();
@@ -115,6 +136,12 @@ public class TiendaController {
             model.addAttribute("categoriaSeleccionada", categoria);
             model.addAttribute("precioMin", precioMin);
             model.addAttribute("precioMax", precioMax);
+            model.addAttribute("tipoPrenda", tipoPrenda);
+            model.addAttribute("franquicia", franquicia);
+            model.addAttribute("talla", talla);
+            model.addAttribute("color", color);
+            model.addAttribute("material", material);
+            model.addAttribute("facetas", catalogo.getFacetas());
             model.addAttribute("ordenar", ordenar);
 
             return "tienda/productos";
@@ -129,8 +156,14 @@ public class TiendaController {
     public String productosPorCategoria(
             @PathVariable String categoria,
             @PageableDefault(size = 12) Pageable pageable,
+            Principal principal,
+            WebRequest request,
             Model model) {
 
+        if (paginaVigente(principal, request)) {
+            return null;
+        }
+
         try {
             // Validar que la categoría no esté vacía
             if (categoria == null || categoria.trim().isEmpty()) {
@@ -141,7 +174,7 @@ public class TiendaController {
             Categoria catEnum = Categoria.valueOf(categoria.toUpperCase());
             
             // Llamar al servicio con el enum Categoria
-            Page<ProductoDTO> productos = productoService.obtenerProductosPorCategoria(catEnum, pageable);
+            Page<ProductoResumenDTO> productos = productoService.obtenerProductosPorCategoria(catEnum, pageable);
             
             // Obtener todas las categorías para el menú de navegación
             List<CategoriaDTO> categoriasDTO = categoriaService.obtenerTodasLasCategorias();
@@ -171,10 +204,16 @@ public class TiendaController {
     public String buscarProductos(
             @RequestParam String q,
             @PageableDefault(size = 12) Pageable pageable,
+            Principal principal,
+            WebRequest request,
             Model model) {
 
+        if (paginaVigente(principal, request)) {
+            return null;
+        }
+
         try {
-            Page<ProductoDTO> productos = productoService.buscarProductos(q, pageable);
+            Page<ProductoResumenDTO> productos = productoService.buscarProductos(q, pageable);
             
             List<Categoria> categorias = List.of(Categoria.values());
             List<String> nombresCategorias = categorias.stream()
@@ -194,8 +233,12 @@ public class TiendaController {
     }
 
     @GetMapping("/producto/{id}")
-    @Cacheable(value = "productoDetalleCache", key = "#id")
-    public String detalleProducto(@PathVariable Long id, Model model) {
+    public String detalleProducto(@PathVariable Long id, Principal principal, WebRequest request, Model model) {
+        // La página incluye los relacionados, así que se valida con la versión de todo el catálogo
+        if (paginaVigente(principal, request)) {
+            return null;
+        }
+
         try {
             // Obtener el producto
             ProductoDTO producto = productoService.obtenerProductoPorId(id);
@@ -203,21 +246,9 @@ public class TiendaController {
                 throw new ResourceNotFoundException("Producto no encontrado con ID: " + id);
             }
 
-            // Obtener productos relacionados (misma categoría)
-            // Crear un Pageable para los productos relacionados
-            Pageable pageableRelacionados = PageRequest.of(
-                Integer.parseInt(AppConstants.NUMERO_PAGINA_POR_DEFECTO), 
-                AppConstants.TAMANO_PAGINA_RELACIONADOS
-            );
-            // Obtener productos de la misma categoría
-            Page<ProductoDTO> productosRelacionadosPage = productoService
-                .obtenerProductosPorCategoria(producto.getCategoria(), pageableRelacionados);
-            
-            // Filtrar para excluir el producto actual
-            List<ProductoDTO> productosRelacionados = productosRelacionadosPage.getContent().stream()
-                .filter(p -> !p.getId().equals(id))
-                .limit(4)
-                .collect(java.util.stream.Collectors.toList());
+            // Productos relacionados precalculados (misma categoría, por afinidad de franquicia y tipo de prenda)
+            List<ProductoResumenDTO> productosRelacionados = productoService
+                .obtenerProductosRelacionados(id, AppConstants.TAMANO_PAGINA_RELACIONADOS);
 
             model.addAttribute("producto", producto);
             model.addAttribute("productosRelacionados", productosRelacionados);
@@ -232,6 +263,16 @@ public class TiendaController {
         }
     }
     
+    /**
+     * Método auxiliar para responder 304 si el cliente ya tiene la página con la versión actual del
+     * catálogo. La cabecera de la página depende del usuario, por lo que el ETag lo incluye; no se
+     * usa {@code Last-Modified}, que no distingue entre usuarios.
+     */
+    private boolean paginaVigente(Principal principal, WebRequest request) {
+        String usuario = principal != null ? principal.getName() : "";
+        return request.checkNotModified(versionCatalogo.etagCatalogo(usuario));
+    }
+
     /**
      * Método auxiliar para obtener el objeto Sort según el parámetro de ordenación
      */
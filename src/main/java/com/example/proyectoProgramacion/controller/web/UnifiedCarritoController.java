@@ -3,8 +3,10 @@ package com.example.proyectoProgramacion.controller.web;
 import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
 import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
 import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.OperacionesCarritoRequestDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.ResumenCarritoDTO;
+import com.example.proyectoProgramacion.security.UsuarioIdResolver;
 import com.example.proyectoProgramacion.service.interfaces.CarritoService;
-import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
@@ -17,8 +19,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.ui.Model;
 import org.springframework.validation.annotation.Validated;
@@ -42,13 +44,13 @@ public class UnifiedCarritoController {
     private static final String VISTA_CARRITO = "carrito/ver";
     
     private final CarritoService carritoService;
-    private final ProductoService productoService;
+    private final UsuarioIdResolver usuarioIdResolver;
 
     @GetMapping
     public String verCarrito(Model model, Authentication authentication) {
         try {
             CarritoDTO carrito = isAuthenticated(authentication)
-                ? carritoService.obtenerCarritoPorUsuario(authentication.getName())
+                ? carritoService.obtenerCarritoPorUsuario(usuarioIdResolver.obtenerId(authentication))
                 : carritoService.obtenerCarritoSesion();
 
             model.addAttribute("carrito", carrito);
@@ -81,7 +83,6 @@ public class UnifiedCarritoController {
 
     @PostMapping("/agregar")
     @ResponseBody
-    @Transactional
     public ResponseEntity<Map<String, Object>> agregarProducto(
             @RequestParam @Positive(message = "ID de producto inválido") Long productoId,
             @RequestParam(defaultValue = "1") @Min(value = 1, message = "La cantidad debe ser al menos 1") Integer cantidad,
@@ -97,29 +98,21 @@ public class UnifiedCarritoController {
         }
 
         try {
-            // Verificar si el producto existe
-            if (productoService.obtenerProductoPorId(productoId) == null) {
-                throw new ResourceNotFoundException("Producto no encontrado");
-            }
-
             ItemCarritoDTO item = new ItemCarritoDTO();
             item.setProductoId(productoId);
             item.setCantidad(cantidad);
 
-            String username = authentication.getName();
-            carritoService.agregarProductoAlCarrito(username, item);
+            // El servicio valida el producto y devuelve los totales sin volver a leer el carrito
+            Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+            ResumenCarritoDTO resumen = carritoService.agregarProductoAlCarrito(usuarioId, item);
             
-            // Obtener el carrito actualizado
-            CarritoDTO carrito = carritoService.obtenerCarritoPorUsuario(username);
-            int totalItems = carrito.getItems().stream()
-                .mapToInt(ItemCarritoDTO::getCantidad)
-                .sum();
-            
-            log.info("Producto {} agregado al carrito del usuario {}. Cantidad: {}", productoId, username, cantidad);
+            log.info("Producto {} agregado al carrito del usuario {}. Cantidad: {}", productoId, authentication.getName(), cantidad);
             
             response.put("success", true);
             response.put("message", "Producto agregado al carrito");
-            response.put("totalItems", totalItems);
+            response.put("cantidadLinea", resumen.getCantidadLinea());
+            response.put("totalItems", resumen.getTotalItems());
+            response.put("total", resumen.getTotal());
             
             return ResponseEntity.ok(response);
 
@@ -137,8 +130,46 @@ public class UnifiedCarritoController {
         }
     }
 
+    /**
+     * Aplica un lote de operaciones (agregar, actualizar, eliminar) sobre el carrito en una sola
+     * transacción y devuelve el carrito resultante. Pensado para que el front end sincronice
+     * ráfagas de cambios con una única petición.
+     */
+    @PostMapping(value = "/operaciones", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> aplicarOperaciones(
+            @Valid @RequestBody OperacionesCarritoRequestDTO request,
+            Authentication authentication) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        if (!isAuthenticated(authentication)) {
+            response.put("redirect", "/auth/login");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+
+        try {
+            Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+            CarritoDTO carrito = carritoService.aplicarOperaciones(usuarioId, request.getOperaciones());
+
+            response.put("success", true);
+            response.put("carrito", carrito);
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (Exception e) {
+            log.error("Error al aplicar operaciones al carrito: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Error al actualizar el carrito: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     @PostMapping("/actualizar")
-    @Transactional
     public String actualizarCantidad(
             @RequestParam Long itemId,
             @RequestParam @Min(value = 1, message = "La cantidad debe ser al menos 1") Integer cantidad,
@@ -150,8 +181,8 @@ public class UnifiedCarritoController {
         }
 
         try {
-            String username = authentication.getName();
-            carritoService.actualizarCantidadItem(username, itemId, cantidad);
+            Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+            carritoService.actualizarCantidadItem(usuarioId, itemId, cantidad);
             redirectAttributes.addFlashAttribute(ATTR_MENSAJE, "Cantidad actualizada correctamente");
             
         } catch (Exception e) {
@@ -163,7 +194,6 @@ public class UnifiedCarritoController {
     }
 
     @PostMapping("/eliminar/{itemId}")
-    @Transactional
     public String eliminarItem(
             @PathVariable Long itemId,
             Authentication authentication,
@@ -174,8 +204,8 @@ public class UnifiedCarritoController {
         }
 
         try {
-            String username = authentication.getName();
-            carritoService.eliminarItemDelCarrito(username, itemId);
+            Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+            carritoService.eliminarItemDelCarrito(usuarioId, itemId);
             redirectAttributes.addFlashAttribute(ATTR_MENSAJE, "Producto eliminado del carrito");
             
         } catch (Exception e) {
@@ -187,7 +217,6 @@ public class UnifiedCarritoController {
     }
 
     @PostMapping("/vaciar")
-    @Transactional
     public String vaciarCarrito(
             Authentication authentication,
             RedirectAttributes redirectAttributes) {
@@ -197,8 +226,8 @@ public class UnifiedCarritoController {
         }
 
         try {
-            String username = authentication.getName();
-            carritoService.vaciarCarrito(username);
+            Long usuarioId = usuarioIdResolver.obtenerId(authentication);
+            carritoService.vaciarCarrito(usuarioId);
             redirectAttributes.addFlashAttribute(ATTR_MENSAJE, "Carrito vaciado correctamente");
             
         } catch (Exception e) {
@@ -0,0 +1,44 @@
+package com.example.proyectoProgramacion.mapper;
+
+import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.entity.Carrito;
+import com.example.proyectoProgramacion.model.entity.ItemCarrito;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Mapper for the entities {@link Carrito}/{@link ItemCarrito} and their DTOs.
+ */
+@Mapper(componentModel = "spring")
+public interface CarritoMapper {
+
+    CarritoMapper INSTANCE = Mappers.getMapper(CarritoMapper.class);
+
+    /**
+     * Converts a Carrito entity, including its items, to a CarritoDTO.
+     *
+     * @param carrito the entity to convert
+     * @return the DTO
+     */
+    @Mapping(target = "usuarioId", source = "usuario.id")
+    @Mapping(target = "username", source = "usuario.username")
+    @Mapping(target = "cantidadItems", expression = "java(carrito.getItems() != null ? carrito.getItems().size() : 0)")
+    CarritoDTO toDto(Carrito carrito);
+
+    /**
+     * Converts an ItemCarrito entity to an ItemCarritoDTO, taking the current price,
+     * name, image and stock from its product.
+     *
+     * @param item the entity to convert
+     * @return the DTO
+     */
+    @Mapping(target = "carritoId", source = "carrito.id")
+    @Mapping(target = "productoId", source = "producto.id")
+    @Mapping(target = "nombreProducto", source = "producto.nombre")
+    @Mapping(target = "imagenProducto", source = "producto.imagenUrl")
+    @Mapping(target = "precioUnitario", source = "producto.precio")
+    @Mapping(target = "stockDisponible", source = "producto.stock")
+    ItemCarritoDTO toItemDto(ItemCarrito item);
+}
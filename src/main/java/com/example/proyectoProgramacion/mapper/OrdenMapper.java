@@ -0,0 +1,41 @@
+package com.example.proyectoProgramacion.mapper;
+
+import com.example.proyectoProgramacion.model.dto.orden.OrdenDTO;
+import com.example.proyectoProgramacion.model.dto.orden.OrdenDetalleDTO;
+import com.example.proyectoProgramacion.model.entity.DetalleOrden;
+import com.example.proyectoProgramacion.model.entity.Orden;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Mapper for the entities {@link Orden}/{@link DetalleOrden} and their DTOs.
+ */
+@Mapper(componentModel = "spring")
+public interface OrdenMapper {
+
+    OrdenMapper INSTANCE = Mappers.getMapper(OrdenMapper.class);
+
+    /**
+     * Converts an Orden entity to an OrdenDTO. The detail lines are not mapped here
+     * (they are loaded separately through {@link #toDetalleDto(DetalleOrden)}).
+     *
+     * @param orden the entity to convert
+     * @return the DTO
+     */
+    @Mapping(target = "usuario", source = "usuario.username")
+    @Mapping(target = "items", ignore = true)
+    OrdenDTO toDto(Orden orden);
+
+    /**
+     * Converts a DetalleOrden entity to an OrdenDetalleDTO.
+     *
+     * @param detalle the entity to convert
+     * @return the DTO
+     */
+    @Mapping(target = "productoId", source = "producto.id")
+    @Mapping(target = "nombreProducto", source = "producto.nombre")
+    @Mapping(target = "ordenId", source = "orden.id")
+    @Mapping(target = "sku", ignore = true)
+    OrdenDetalleDTO toDetalleDto(DetalleOrden detalle);
+}
@@ -0,0 +1,28 @@
+package com.example.proyectoProgramacion.mapper;
+
+import com.example.proyectoProgramacion.model.dto.pago.PagoDTO;
+import com.example.proyectoProgramacion.model.entity.Pago;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Mapper for the entity {@link Pago} and its DTO {@link PagoDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface PagoMapper {
+
+    PagoMapper INSTANCE = Mappers.getMapper(PagoMapper.class);
+
+    /**
+     * Converts a Pago entity to a PagoDTO.
+     *
+     * @param pago the entity to convert
+     * @return the DTO
+     */
+    @Mapping(target = "ordenId", source = "orden.id")
+    @Mapping(target = "usuarioId", source = "usuario.id")
+    @Mapping(target = "nombreUsuario", source = "usuario.nombre")
+    @Mapping(target = "referenciaPago", source = "referencia")
+    PagoDTO toDto(Pago pago);
+}
@@ -1,6 +1,7 @@
 package com.example.proyectoProgramacion.mapper;
 
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.model.entity.Producto;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -24,12 +25,24 @@ public interface ProductoMapper {
      */
     ProductoDTO toDto(Producto producto);
 
+    /**
+     * Converts a Producto entity to the listing summary DTO.
+     *
+     * @param producto the entity to convert
+     * @return the summary DTO
+     */
+    ProductoResumenDTO toResumenDto(Producto producto);
+
     /**
      * Converts a ProductoDTO to a Producto entity.
      *
      * @param productoDTO the DTO to convert
      * @return the entity
      */
+    @Mapping(target = "descuento", ignore = true)
+    @Mapping(target = "itemsCarrito", ignore = true)
+    @Mapping(target = "itemsOrden", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Producto toEntity(ProductoDTO productoDTO);
 
     /**
@@ -39,7 +52,9 @@ public interface ProductoMapper {
      * @param producto the entity to update
      */
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "descuento", ignore = true)
     @Mapping(target = "itemsCarrito", ignore = true)
     @Mapping(target = "itemsOrden", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(ProductoDTO productoDTO, @MappingTarget Producto producto);
 }
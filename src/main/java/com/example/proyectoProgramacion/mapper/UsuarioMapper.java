@@ -0,0 +1,23 @@
+package com.example.proyectoProgramacion.mapper;
+
+import com.example.proyectoProgramacion.model.dto.usuario.UsuarioDTO;
+import com.example.proyectoProgramacion.model.entity.Usuario;
+import org.mapstruct.Mapper;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Mapper for the entity {@link Usuario} and its DTO {@link UsuarioDTO}.
+ */
+@Mapper(componentModel = "spring")
+public interface UsuarioMapper {
+
+    UsuarioMapper INSTANCE = Mappers.getMapper(UsuarioMapper.class);
+
+    /**
+     * Converts a Usuario entity to a UsuarioDTO (roles and addresses included, password excluded).
+     *
+     * @param usuario the entity to convert
+     * @return the DTO
+     */
+    UsuarioDTO toDto(Usuario usuario);
+}
@@ -0,0 +1,30 @@
+package com.example.proyectoProgramacion.model.dto.admin;
+
+import com.example.proyectoProgramacion.model.enums.EstadoOrden;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * DTO con las estadísticas agregadas del panel de administración.
+ */
+@Data
+public class EstadisticasDashboardDTO {
+
+    private long totalProductos;
+
+    private long totalUsuarios;
+
+    private long totalOrdenes;
+
+    // Suma del total de las órdenes pagadas o en curso de entrega
+    private BigDecimal ingresosTotales = BigDecimal.ZERO;
+
+    private Map<EstadoOrden, Long> ordenesPorEstado = new EnumMap<>(EstadoOrden.class);
+
+    private long productosStockBajo;
+
+    private int umbralStockBajo;
+}
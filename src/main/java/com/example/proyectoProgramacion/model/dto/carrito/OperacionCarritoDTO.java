@@ -0,0 +1,32 @@
+package com.example.proyectoProgramacion.model.dto.carrito;
+
+import com.example.proyectoProgramacion.model.enums.TipoOperacionCarrito;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una operación dentro de un lote de cambios sobre el carrito.
+ * AGREGAR usa {@code productoId} y {@code cantidad}; ACTUALIZAR usa {@code itemId} y
+ * {@code cantidad}; ELIMINAR usa solo {@code itemId}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperacionCarritoDTO {
+
+    @NotNull(message = "El tipo de operación es obligatorio")
+    private TipoOperacionCarrito tipo;
+
+    @Positive(message = "ID de producto inválido")
+    private Long productoId;
+
+    @Positive(message = "ID de ítem inválido")
+    private Long itemId;
+
+    @Min(value = 1, message = "La cantidad debe ser al menos 1")
+    private Integer cantidad;
+}
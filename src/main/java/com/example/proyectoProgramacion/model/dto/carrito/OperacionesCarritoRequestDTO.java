@@ -0,0 +1,25 @@
+package com.example.proyectoProgramacion.model.dto.carrito;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para aplicar varias operaciones sobre el carrito en una sola petición.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperacionesCarritoRequestDTO {
+
+    @NotEmpty(message = "Debe indicar al menos una operación")
+    @Size(max = 100, message = "No se pueden aplicar más de 100 operaciones por petición")
+    @Valid
+    private List<OperacionCarritoDTO> operaciones = new ArrayList<>();
+}
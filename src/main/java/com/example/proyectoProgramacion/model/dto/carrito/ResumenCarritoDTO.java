@@ -0,0 +1,27 @@
+package com.example.proyectoProgramacion.model.dto.carrito;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO compacto con el resultado de agregar un producto al carrito: la cantidad de la línea
+ * afectada y los totales del carrito, sin el detalle de los ítems.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCarritoDTO {
+
+    private Long productoId;
+
+    // Cantidad de la línea del producto después de la operación
+    private int cantidadLinea;
+
+    // Suma de las cantidades de todas las líneas del carrito
+    private int totalItems;
+
+    private BigDecimal total = BigDecimal.ZERO;
+}
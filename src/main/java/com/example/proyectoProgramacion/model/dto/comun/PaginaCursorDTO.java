@@ -0,0 +1,36 @@
+package com.example.proyectoProgramacion.model.dto.comun;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO genérico para listados paginados por cursor (keyset).
+ * A diferencia de {@code Page}, no incluye el total de elementos: la página siguiente se pide
+ * enviando el token {@code siguiente}, y cuesta lo mismo sea cual sea su posición en el listado.
+ *
+ * @param <T> Tipo de los elementos del listado
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaCursorDTO<T> {
+
+    /**
+     * Elementos de la página actual
+     */
+    private List<T> contenido = new ArrayList<>();
+
+    /**
+     * Token opaco para obtener la página siguiente; nulo en la última página
+     */
+    private String siguiente;
+
+    /**
+     * Indica si existe una página siguiente
+     */
+    private boolean hayMas;
+}
@@ -19,6 +19,8 @@ public class OrdenDTO {
     
     private Long id;
     
+    private String numero;
+    
     @NotBlank(message = "El nombre de usuario es obligatorio")
     private String usuario;
     
@@ -0,0 +1,25 @@
+package com.example.proyectoProgramacion.model.dto.producto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DTO con una página del catálogo filtrado y los recuentos de cada faceta.
+ * <p>Los recuentos de una faceta aplican todos los filtros salvo el de la propia faceta, de modo
+ * que indican cuántos productos quedarían al cambiar su valor seleccionado.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogoFacetadoDTO {
+
+    private Page<ProductoResumenDTO> productos;
+
+    // faceta (categoria, tipoPrenda, franquicia, talla, color) -> valor -> número de productos
+    private Map<String, Map<String, Long>> facetas = new LinkedHashMap<>();
+}
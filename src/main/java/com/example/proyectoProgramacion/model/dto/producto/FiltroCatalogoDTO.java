@@ -0,0 +1,41 @@
+package com.example.proyectoProgramacion.model.dto.producto;
+
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con los filtros combinables del catálogo. Los campos nulos o vacíos no filtran;
+ * los que tienen valor se aplican todos a la vez.
+ */
+@Data
+@NoArgsConstructor
+public class FiltroCatalogoDTO {
+
+    // Texto libre sobre nombre y descripción
+    private String texto;
+
+    private Categoria categoria;
+
+    private BigDecimal precioMin;
+
+    private BigDecimal precioMax;
+
+    private String tipoPrenda;
+
+    private String franquicia;
+
+    private String talla;
+
+    private String color;
+
+    private String material;
+
+    // Nulo para no filtrar por destacado
+    private Boolean destacado;
+
+    // Nulo para incluir productos activos e inactivos
+    private Boolean activo = Boolean.TRUE;
+}
@@ -60,6 +60,9 @@ public class ProductoDTO {
     private LocalDateTime fechaCreacion;
     private LocalDateTime fechaActualizacion;
     
+    // Versión de la entidad; base del ETag del producto. Se ignora al crear o actualizar
+    private Long version;
+    
     @Builder.Default
     private boolean activo = true;
     
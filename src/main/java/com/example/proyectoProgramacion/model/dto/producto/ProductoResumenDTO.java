@@ -0,0 +1,36 @@
+package com.example.proyectoProgramacion.model.dto.producto;
+
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO de solo lectura con los datos de un producto que muestran las tarjetas de los listados.
+ * <p>Los repositorios lo construyen directamente en la consulta ({@code SELECT new ...}), de modo
+ * que los listados no leen la descripción ni cargan entidades {@code Producto} gestionadas.
+ * El orden del constructor debe coincidir con {@code ProductoRepository.RESUMEN}.</p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Datos de un producto para los listados")
+public class ProductoResumenDTO {
+
+    private Long id;
+
+    private String nombre;
+
+    private BigDecimal precio;
+
+    private BigDecimal descuento;
+
+    private String imagenUrl;
+
+    private Integer stock;
+
+    private Categoria categoria;
+}
@@ -25,7 +25,8 @@ import java.time.LocalDateTime;
 public class DetalleOrden {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "detalles_orden_seq")
+    @SequenceGenerator(name = "detalles_orden_seq", sequenceName = "detalles_orden_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "La orden es obligatoria")
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -11,21 +12,24 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "items_carrito")
+@Table(name = "items_carrito", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_item_carrito_producto", columnNames = {"carrito_id", "producto_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ItemCarrito {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_carrito_seq")
+    @SequenceGenerator(name = "items_carrito_seq", sequenceName = "items_carrito_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "carrito_id", nullable = false)
     private Carrito carrito;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "producto_id", nullable = false)
     private Producto producto;
 
@@ -46,6 +50,12 @@ public class ItemCarrito {
     @Column(name = "fecha_actualizacion")
     private LocalDateTime fechaActualizacion;
 
+    // Bloqueo optimista; las sentencias JDBC que modifican la fila también incrementan la versión
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Método para calcular el subtotal
     @PrePersist
     @PreUpdate
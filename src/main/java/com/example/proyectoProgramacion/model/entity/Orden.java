@@ -24,13 +24,16 @@ import java.util.List;
 @Table(name = "ordenes", indexes = {
     @Index(name = "idx_orden_usuario", columnList = "usuario_id"),
     @Index(name = "idx_orden_estado", columnList = "estado"),
-    @Index(name = "idx_orden_fecha", columnList = "fecha_creacion")
+    @Index(name = "idx_orden_fecha", columnList = "fecha_creacion"),
+    // Listados por cursor de un usuario: (usuario, fecha) con el ID como desempate
+    @Index(name = "idx_orden_usuario_fecha_id", columnList = "usuario_id, fecha_creacion, id")
 })
 public class Orden {
 
     // Getters y setters
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ordenes_seq")
+    @SequenceGenerator(name = "ordenes_seq", sequenceName = "ordenes_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El número de orden es obligatorio")
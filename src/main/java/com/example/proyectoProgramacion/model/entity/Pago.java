@@ -24,7 +24,8 @@ import java.time.LocalDateTime;
 public class Pago {
     // Getters y Setters
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pagos_seq")
+    @SequenceGenerator(name = "pagos_seq", sequenceName = "pagos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "El método de pago es obligatorio")
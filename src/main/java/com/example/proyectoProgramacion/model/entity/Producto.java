@@ -9,6 +9,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -22,7 +23,11 @@ import com.example.proyectoProgramacion.model.enums.Categoria;
 @Table(name = "productos", indexes = {
     @Index(name = "idx_producto_nombre", columnList = "nombre"),
     @Index(name = "idx_producto_categoria", columnList = "categoria"),
-    @Index(name = "idx_producto_activo", columnList = "activo")
+    @Index(name = "idx_producto_activo", columnList = "activo"),
+    @Index(name = "idx_producto_fecha_id", columnList = "fechaCreacion, id"),
+    // Filtros facetados del catálogo: igualdad en activo y categoría, rango de precio
+    @Index(name = "idx_producto_activo_categoria_precio", columnList = "activo, categoria, precio"),
+    @Index(name = "idx_producto_destacado_fecha", columnList = "destacado, activo, fechaCreacion")
 })
 @Data
 @NoArgsConstructor
@@ -30,7 +35,8 @@ import com.example.proyectoProgramacion.model.enums.Categoria;
 public class Producto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "{producto.nombre.notBlank}") // Corregido notblank a notBlank
@@ -90,12 +96,18 @@ public class Producto {
     private BigDecimal descuento = BigDecimal.ZERO;
 
     @CreationTimestamp
-    @Column(updatable = false) // Eliminado name="fecha_creacion" que no se resuelve
+    @Column(nullable = false, updatable = false) // Eliminado name="fecha_creacion" que no se resuelve
     private LocalDateTime fechaCreacion;
 
     @UpdateTimestamp
     private LocalDateTime fechaActualizacion; // Eliminado name="fecha_actualizacion" que no se resuelve
 
+    // Bloqueo optimista; las sentencias JDBC que modifican la fila también incrementan la versión
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ItemCarrito> itemsCarrito = new ArrayList<>();
 
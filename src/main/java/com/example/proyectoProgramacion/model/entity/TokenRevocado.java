@@ -0,0 +1,38 @@
+package com.example.proyectoProgramacion.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Entidad que representa un token JWT revocado, compartida entre todos los nodos de la aplicación.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@Entity
+@Table(name = "tokens_revocados", indexes = {
+    @Index(name = "idx_token_revocado_fecha", columnList = "fecha_revocacion"),
+    @Index(name = "idx_token_revocado_expira", columnList = "expira_en")
+})
+public class TokenRevocado {
+
+    @Id
+    @Column(name = "token_id", length = 128)
+    private String tokenId;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+
+    @Column(name = "fecha_revocacion", nullable = false)
+    private Instant fechaRevocacion;
+
+    public TokenRevocado(String tokenId, Instant expiraEn, Instant fechaRevocacion) {
+        this.tokenId = tokenId;
+        this.expiraEn = expiraEn;
+        this.fechaRevocacion = fechaRevocacion;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.proyectoProgramacion.model.enums;
+
+import lombok.Getter;
+
+/**
+ * Enumeración de las operaciones que se pueden aplicar en lote sobre el carrito.
+ */
+@Getter
+public enum TipoOperacionCarrito {
+    AGREGAR("Agregar producto"),
+    ACTUALIZAR("Actualizar cantidad"),
+    ELIMINAR("Eliminar ítem");
+
+    private final String descripcion;
+
+    TipoOperacionCarrito(String descripcion) {
+        this.descripcion = descripcion;
+    }
+}
@@ -3,6 +3,8 @@ package com.example.proyectoProgramacion.repository;
 import com.example.proyectoProgramacion.model.entity.Carrito;
 import com.example.proyectoProgramacion.model.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -28,6 +30,25 @@ public interface CarritoRepository extends JpaRepository<Carrito, Long> {
      * @return Un Optional con el carrito si existe
      */
     Optional<Carrito> findByUsuarioId(Long usuarioId);
+
+    /**
+     * Obtiene solo el ID del carrito de un usuario, sin cargar la entidad.
+     *
+     * @param usuarioId ID del usuario propietario del carrito
+     * @return Un Optional con el ID del carrito si existe
+     */
+    @Query("SELECT c.id FROM Carrito c WHERE c.usuario.id = :usuarioId")
+    Optional<Long> findIdByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    /**
+     * Busca el carrito de un usuario junto con sus ítems y los productos de cada ítem
+     * en una sola consulta, para construir el {@code CarritoDTO} sin consultas adicionales.
+     *
+     * @param usuarioId ID del usuario propietario del carrito
+     * @return Un Optional con el carrito y sus ítems inicializados si existe
+     */
+    @Query("SELECT c FROM Carrito c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.producto WHERE c.usuario.id = :usuarioId")
+    Optional<Carrito> findConItemsByUsuarioId(@Param("usuarioId") Long usuarioId);
 }
 
 
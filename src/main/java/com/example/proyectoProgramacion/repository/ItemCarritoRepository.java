@@ -13,7 +13,7 @@ import java.util.Optional;
  * Repositorio para gestionar operaciones de base de datos relacionadas con los ítems del carrito.
  */
 @Repository
-public interface ItemCarritoRepository extends JpaRepository<ItemCarrito, Long> {
+public interface ItemCarritoRepository extends JpaRepository<ItemCarrito, Long>, ItemCarritoRepositoryCustom {
 
     /**
      * Busca todos los ítems de un carrito específico.
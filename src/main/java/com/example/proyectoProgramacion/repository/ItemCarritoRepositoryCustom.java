@@ -0,0 +1,43 @@
+package com.example.proyectoProgramacion.repository;
+
+import com.example.proyectoProgramacion.model.dto.carrito.ResumenCarritoDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Operaciones sobre las líneas del carrito que se resuelven con sentencias SQL atómicas,
+ * sin cargar el carrito ni sus ítems.
+ */
+public interface ItemCarritoRepositoryCustom {
+
+    /**
+     * Inserta la línea del producto en el carrito o, si ya existe, incrementa su cantidad,
+     * con un único {@code INSERT ... ON CONFLICT} apoyado en la restricción única
+     * (carrito_id, producto_id). Después recalcula el total del carrito en la misma transacción.
+     *
+     * @param carritoId ID del carrito
+     * @param productoId ID del producto
+     * @param cantidad Cantidad a añadir
+     * @return Cantidad de la línea y totales actualizados del carrito; vacío si el producto
+     *         no existe o su stock es menor que la cantidad solicitada
+     */
+    Optional<ResumenCarritoDTO> agregarOIncrementar(Long carritoId, Long productoId, int cantidad);
+
+    /**
+     * Suma varias líneas al carrito con un único lote de {@code INSERT ... ON CONFLICT}: cada
+     * cantidad se añade a la línea existente del producto o crea una nueva. Después recalcula el
+     * total del carrito. No valida stock.
+     *
+     * @param carritoId ID del carrito
+     * @param lineas Líneas a sumar, a lo sumo una por producto
+     */
+    void sumarLineas(Long carritoId, List<Linea> lineas);
+
+    /**
+     * Línea a sumar al carrito con el precio unitario vigente del producto.
+     */
+    record Linea(Long productoId, int cantidad, BigDecimal precioUnitario) {
+    }
+}
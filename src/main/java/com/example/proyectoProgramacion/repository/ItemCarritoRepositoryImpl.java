@@ -0,0 +1,92 @@
+package com.example.proyectoProgramacion.repository;
+
+import com.example.proyectoProgramacion.model.dto.carrito.ResumenCarritoDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementación de {@link ItemCarritoRepositoryCustom} con SQL de PostgreSQL.
+ * Participa en la transacción JPA en curso.
+ */
+public class ItemCarritoRepositoryImpl implements ItemCarritoRepositoryCustom {
+
+    // Los ID salen de la misma secuencia que usa Hibernate: cada nextval reserva un bloque entero
+    // de allocationSize, así que nunca coinciden con los que Hibernate reparte en memoria.
+    // El SELECT sobre productos valida existencia y stock y toma el precio en la misma sentencia
+    private static final String SQL_UPSERT_LINEA =
+            "INSERT INTO items_carrito (id, carrito_id, producto_id, cantidad, precio_unitario, subtotal, "
+            + "fecha_creacion, fecha_actualizacion, version) "
+            + "SELECT nextval('items_carrito_seq'), ?, p.id, ?, p.precio, p.precio * ?, now(), now(), 0 "
+            + "FROM productos p WHERE p.id = ? AND p.stock >= ? "
+            + "ON CONFLICT (carrito_id, producto_id) DO UPDATE SET "
+            + "cantidad = items_carrito.cantidad + EXCLUDED.cantidad, "
+            + "precio_unitario = EXCLUDED.precio_unitario, "
+            + "subtotal = EXCLUDED.precio_unitario * (items_carrito.cantidad + EXCLUDED.cantidad), "
+            + "fecha_actualizacion = EXCLUDED.fecha_actualizacion, "
+            + "version = items_carrito.version + 1 "
+            + "RETURNING cantidad";
+
+    private static final String SQL_SUMAR_LINEA =
+            "INSERT INTO items_carrito (id, carrito_id, producto_id, cantidad, precio_unitario, subtotal, "
+            + "fecha_creacion, fecha_actualizacion, version) "
+            + "VALUES (nextval('items_carrito_seq'), ?, ?, ?, ?, ?, now(), now(), 0) "
+            + "ON CONFLICT (carrito_id, producto_id) DO UPDATE SET "
+            + "cantidad = items_carrito.cantidad + EXCLUDED.cantidad, "
+            + "precio_unitario = EXCLUDED.precio_unitario, "
+            + "subtotal = EXCLUDED.precio_unitario * (items_carrito.cantidad + EXCLUDED.cantidad), "
+            + "fecha_actualizacion = EXCLUDED.fecha_actualizacion, "
+            + "version = items_carrito.version + 1";
+
+    private static final String SQL_ACTUALIZAR_TOTAL =
+            "UPDATE carritos c SET total = s.total, fecha_actualizacion = now(), version = c.version + 1 "
+            + "FROM (SELECT COALESCE(SUM(subtotal), 0) AS total, COALESCE(SUM(cantidad), 0) AS items "
+            + "FROM items_carrito WHERE carrito_id = ?) s "
+            + "WHERE c.id = ? RETURNING s.total, s.items";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemCarritoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<ResumenCarritoDTO> agregarOIncrementar(Long carritoId, Long productoId, int cantidad) {
+        List<Integer> lineas = jdbcTemplate.queryForList(SQL_UPSERT_LINEA, Integer.class,
+                carritoId, cantidad, cantidad, productoId, cantidad);
+        if (lineas.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ResumenCarritoDTO resumen = jdbcTemplate.queryForObject(SQL_ACTUALIZAR_TOTAL,
+                (rs, fila) -> new ResumenCarritoDTO(productoId, lineas.get(0),
+                        rs.getInt("items"), rs.getBigDecimal("total")),
+                carritoId, carritoId);
+        return Optional.ofNullable(resumen);
+    }
+
+    @Override
+    public void sumarLineas(Long carritoId, List<Linea> lineas) {
+        if (lineas.isEmpty()) {
+            return;
+        }
+
+        // Orden fijo por producto para que dos fusiones concurrentes bloqueen las filas en el mismo orden
+        List<Linea> ordenadas = lineas.stream()
+                .sorted(Comparator.comparing(Linea::productoId))
+                .toList();
+
+        jdbcTemplate.batchUpdate(SQL_SUMAR_LINEA, ordenadas, ordenadas.size(), (ps, linea) -> {
+            ps.setLong(1, carritoId);
+            ps.setLong(2, linea.productoId());
+            ps.setInt(3, linea.cantidad());
+            ps.setBigDecimal(4, linea.precioUnitario());
+            ps.setBigDecimal(5, linea.precioUnitario().multiply(BigDecimal.valueOf(linea.cantidad())));
+        });
+
+        jdbcTemplate.query(SQL_ACTUALIZAR_TOTAL, rs -> { }, carritoId, carritoId);
+    }
+}
@@ -3,12 +3,18 @@ package com.example.proyectoProgramacion.repository;
 import com.example.proyectoProgramacion.model.entity.Orden;
 import com.example.proyectoProgramacion.model.entity.Usuario;
 import com.example.proyectoProgramacion.model.enums.EstadoOrden;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -45,7 +51,38 @@ public interface OrdenRepository extends JpaRepository<Orden, Long> {
     List<Orden> findByUsuarioId(Long usuarioId);
 
     /**
-     * Busca una orden por su número único.
+     * Busca las órdenes de un usuario por su ID, paginadas.
+     *
+     * @param usuarioId ID del usuario cuyas órdenes se desean obtener
+     * @param pageable Configuración de paginación
+     * @return Página de órdenes del usuario
+     */
+    Page<Orden> findByUsuarioId(Long usuarioId, Pageable pageable);
+
+    /**
+     * Recorre las órdenes de un usuario por cursor (keyset), sin OFFSET ni count.
+     *
+     * @param usuarioId ID del usuario
+     * @param posicion Posición desde la que continuar
+     * @param sort Orden del listado; el ID se añade como desempate
+     * @param limite Número máximo de órdenes
+     * @return Ventana de órdenes con la posición de cada una
+     */
+    Window<Orden> findByUsuarioId(Long usuarioId, ScrollPosition posicion, Sort sort, Limit limite);
+
+    /**
+     * Recorre todas las órdenes por cursor (keyset), sin OFFSET ni count.
+     *
+     * @param posicion Posición desde la que continuar
+     * @param sort Orden del listado; el ID se añade como desempate
+     * @param limite Número máximo de órdenes
+     * @return Ventana de órdenes con la posición de cada una
+     */
+    Window<Orden> findAllBy(ScrollPosition posicion, Sort sort, Limit limite);
+
+    /**
+     * Busca una orden por su número único, la clave que usa el cliente para consultarla.
+     * Se resuelve con el índice único de la columna {@code numero}.
      *
      * @param numero Número único de la orden
      * @return Un Optional con la orden si existe
@@ -70,6 +107,25 @@ public interface OrdenRepository extends JpaRepository<Orden, Long> {
     List<Orden> findByFechaCreacionBetween(LocalDateTime inicio, LocalDateTime fin);
 
     Page<Orden> findAll(Specification<Orden> spec, Pageable pageable);
+
+    /**
+     * Cuenta las órdenes y suma sus totales agrupando por estado.
+     *
+     * @return Un resumen por cada estado con al menos una orden
+     */
+    @Query("SELECT o.estado AS estado, COUNT(o) AS cantidad, SUM(o.total) AS total FROM Orden o GROUP BY o.estado")
+    List<ResumenEstadoOrden> resumirPorEstado();
+
+    /**
+     * Proyección con el número de órdenes y la suma de sus totales para un estado.
+     */
+    interface ResumenEstadoOrden {
+        EstadoOrden getEstado();
+
+        long getCantidad();
+
+        BigDecimal getTotal();
+    }
 }
 
 
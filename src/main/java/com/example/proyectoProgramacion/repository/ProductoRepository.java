@@ -1,9 +1,15 @@
 package com.example.proyectoProgramacion.repository;
 
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.model.entity.Producto;
 import com.example.proyectoProgramacion.model.enums.Categoria;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -11,10 +17,97 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto>,
+        ProductoRepositoryCustom {
+
+    /**
+     * Proyección de los listados: solo las columnas de las tarjetas, sin la descripción ni las
+     * colecciones, y sin entidades gestionadas en el contexto de persistencia.
+     */
+    String RESUMEN = "SELECT new com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO("
+            + "p.id, p.nombre, p.precio, p.descuento, p.imagenUrl, p.stock, p.categoria) FROM Producto p";
+
+    /**
+     * Recorre el catálogo por cursor (keyset): filtra a partir de la última fila de la página
+     * anterior en lugar de usar OFFSET, y no ejecuta count.
+     * @param posicion Posición desde la que continuar
+     * @param sort Orden del listado; el ID se añade como desempate
+     * @param limite Número máximo de productos
+     * @return Ventana de productos con la posición de cada uno
+     */
+    Window<Producto> findAllBy(ScrollPosition posicion, Sort sort, Limit limite);
+
+    /**
+     * Obtiene una página del catálogo para los listados.
+     * @param pageable Configuración de paginación
+     * @return Página de resúmenes de producto
+     */
+    @Query(value = RESUMEN, countQuery = "SELECT COUNT(p) FROM Producto p")
+    Page<ProductoResumenDTO> findResumenes(Pageable pageable);
+
+    /**
+     * Obtiene una página del catálogo sin calcular el total de elementos.
+     * @param pageable Configuración de paginación
+     * @return Porción de resúmenes de producto e indicación de si hay más
+     */
+    @Query(RESUMEN)
+    Slice<ProductoResumenDTO> findResumenesSinTotal(Pageable pageable);
+
+    /**
+     * Obtiene los resúmenes de los productos indicados, en cualquier orden.
+     * @param ids IDs de los productos
+     * @return Resúmenes de los productos que existen
+     */
+    @Query(RESUMEN + " WHERE p.id IN :ids")
+    List<ProductoResumenDTO> findResumenesPorIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Obtiene los productos activos de una categoría para los listados.
+     * @param categoria Categoría de los productos
+     * @param pageable Configuración de paginación
+     * @return Página de resúmenes de producto
+     */
+    @Query(value = RESUMEN + " WHERE p.categoria = :categoria AND p.activo = true",
+            countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.categoria = :categoria AND p.activo = true")
+    Page<ProductoResumenDTO> findResumenesPorCategoria(@Param("categoria") Categoria categoria, Pageable pageable);
+
+    /**
+     * Busca en nombre y descripción, ignorando mayúsculas, para los listados.
+     * @param termino Texto a buscar
+     * @param pageable Configuración de paginación
+     * @return Página de resúmenes de producto
+     */
+    @Query(value = RESUMEN + " WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :termino, '%'))"
+                    + " OR LOWER(p.descripcion) LIKE LOWER(CONCAT('%', :termino, '%'))",
+            countQuery = "SELECT COUNT(p) FROM Producto p WHERE LOWER(p.nombre) LIKE LOWER(CONCAT('%', :termino, '%'))"
+                    + " OR LOWER(p.descripcion) LIKE LOWER(CONCAT('%', :termino, '%'))")
+    Page<ProductoResumenDTO> findResumenesPorTexto(@Param("termino") String termino, Pageable pageable);
+
+    /**
+     * Obtiene los productos con precio dentro del rango, ambos extremos incluidos, para los listados.
+     * @param precioMin Precio mínimo
+     * @param precioMax Precio máximo
+     * @param pageable Configuración de paginación
+     * @return Página de resúmenes de producto
+     */
+    @Query(value = RESUMEN + " WHERE p.precio BETWEEN :precioMin AND :precioMax",
+            countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.precio BETWEEN :precioMin AND :precioMax")
+    Page<ProductoResumenDTO> findResumenesPorPrecio(@Param("precioMin") BigDecimal precioMin,
+                                                    @Param("precioMax") BigDecimal precioMax,
+                                                    Pageable pageable);
+
+    /**
+     * Obtiene los productos activos con descuento para los listados.
+     * @param pageable Configuración de paginación
+     * @return Página de resúmenes de producto
+     */
+    @Query(value = RESUMEN + " WHERE p.descuento > 0 AND p.activo = true",
+            countQuery = "SELECT COUNT(p) FROM Producto p WHERE p.descuento > 0 AND p.activo = true")
+    Page<ProductoResumenDTO> findResumenesEnOferta(Pageable pageable);
 
     /**
      * Busca productos por categoría que estén activos.
@@ -32,9 +125,11 @@ public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSp
             String nombre, String descripcion, Pageable pageable);
 
     /**
-     * Obtiene productos destacados y activos ordenados por fecha de creación descendente.
+     * Obtiene los resúmenes de los productos destacados y activos, los más recientes primero,
+     * con el límite aplicado en la propia consulta.
      */
-    List<Producto> findByDestacadoTrueAndActivoTrueOrderByFechaCreacionDesc();
+    @Query(RESUMEN + " WHERE p.destacado = true AND p.activo = true ORDER BY p.fechaCreacion DESC, p.id DESC")
+    List<ProductoResumenDTO> findResumenesDestacados(Limit limite);
 
     /**
      * Busca productos por categoría.
@@ -97,6 +192,11 @@ public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSp
      * Cuenta la cantidad de productos activos.
      */
     long countByActivoTrue();
+
+    /**
+     * Cuenta los productos activos cuyo stock es menor o igual al umbral indicado.
+     */
+    long countByActivoTrueAndStockLessThanEqual(int umbral);
 }
 
 
@@ -0,0 +1,46 @@
+package com.example.proyectoProgramacion.repository;
+
+import com.example.proyectoProgramacion.model.dto.producto.CatalogoFacetadoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones de stock que se ejecutan como actualizaciones condicionales en lote,
+ * sin cargar ni bloquear las entidades {@code Producto}, y consultas del catálogo en SQL.
+ */
+public interface ProductoRepositoryCustom {
+
+    /**
+     * Descuenta stock de varios productos en un solo lote de sentencias
+     * {@code UPDATE ... WHERE stock >= cantidad}. Cada línea se aplica solo si hay stock suficiente;
+     * el llamador debe abortar la transacción si alguna no se pudo reservar.
+     *
+     * @param cantidades Cantidad a descontar por ID de producto
+     * @return IDs de los productos sin stock suficiente (o inactivos); vacía si todo se reservó
+     */
+    List<Long> reservarStock(Map<Long, Integer> cantidades);
+
+    /**
+     * Devuelve stock a varios productos en un solo lote de sentencias {@code UPDATE}.
+     *
+     * @param cantidades Cantidad a reponer por ID de producto
+     */
+    void reponerStock(Map<Long, Integer> cantidades);
+
+    /**
+     * Filtra el catálogo combinando todos los filtros recibidos y calcula los recuentos por
+     * faceta. Ejecuta siempre dos consultas, sea cual sea el número de filtros: la página de
+     * resultados y una sola pasada de agregación con el total y todas las facetas.
+     *
+     * @param filtro Filtros a aplicar
+     * @param idsPorTexto IDs que coinciden con el texto según el índice de búsqueda, ordenados por
+     *                    relevancia; nulo para filtrar el texto con {@code LIKE} en la base de datos
+     * @param pageable Paginación y orden (nombre, precio, fechaCreacion o id); sin orden y con
+     *                 {@code idsPorTexto} se ordena por relevancia
+     * @return Página de productos y recuentos por faceta
+     */
+    CatalogoFacetadoDTO filtrarCatalogo(FiltroCatalogoDTO filtro, List<Long> idsPorTexto, Pageable pageable);
+}
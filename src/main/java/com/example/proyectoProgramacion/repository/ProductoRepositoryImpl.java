@@ -0,0 +1,264 @@
+package com.example.proyectoProgramacion.repository;
+
+import com.example.proyectoProgramacion.model.dto.producto.CatalogoFacetadoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Implementación de {@link ProductoRepositoryCustom} con lotes JDBC y SQL de PostgreSQL.
+ * Participa en la transacción JPA en curso, por lo que un rollback deshace también las reservas.
+ */
+public class ProductoRepositoryImpl implements ProductoRepositoryCustom {
+
+    private static final String SQL_RESERVAR =
+            "UPDATE productos SET stock = stock - ?, version = version + 1 "
+            + "WHERE id = ? AND activo = true AND stock >= ?";
+
+    private static final String SQL_REPONER =
+            "UPDATE productos SET stock = stock + ?, version = version + 1 WHERE id = ?";
+
+    private static final String COLUMNAS_RESUMEN =
+            "p.id, p.nombre, p.precio, p.descuento, p.imagen_url, p.stock, p.categoria";
+
+    // Propiedades por las que se puede ordenar el catálogo y su columna
+    private static final Map<String, String> COLUMNAS_ORDEN = Map.of(
+            "nombre", "p.nombre",
+            "precio", "p.precio",
+            "fechaCreacion", "p.fecha_creacion",
+            "id", "p.id");
+
+    // Facetas en el orden en que se devuelven sus recuentos
+    private static final List<Faceta> FACETAS = List.of(
+            new Faceta("categoria", "categoria",
+                    f -> f.getCategoria() != null ? f.getCategoria().name() : null),
+            new Faceta("tipoPrenda", "tipo_prenda", FiltroCatalogoDTO::getTipoPrenda),
+            new Faceta("franquicia", "franquicia", FiltroCatalogoDTO::getFranquicia),
+            new Faceta("talla", "talla", FiltroCatalogoDTO::getTalla),
+            new Faceta("color", "color", FiltroCatalogoDTO::getColor),
+            new Faceta("material", "material", FiltroCatalogoDTO::getMaterial));
+
+    private static final RowMapper<ProductoResumenDTO> MAPEO_RESUMEN = (rs, fila) -> new ProductoResumenDTO(
+            rs.getLong("id"),
+            rs.getString("nombre"),
+            rs.getBigDecimal("precio"),
+            rs.getBigDecimal("descuento"),
+            rs.getString("imagen_url"),
+            rs.getInt("stock"),
+            Categoria.valueOf(rs.getString("categoria")));
+
+    private record Faceta(String nombre, String columna, Function<FiltroCatalogoDTO, String> valor) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductoRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> reservarStock(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return List.of();
+        }
+
+        // Orden fijo por ID para que dos compras concurrentes bloqueen las filas en el mismo orden
+        List<Map.Entry<Long, Integer>> lineas = new ArrayList<>(new TreeMap<>(cantidades).entrySet());
+
+        int[] filas = jdbcTemplate.batchUpdate(SQL_RESERVAR, lineas, lineas.size(), (ps, linea) -> {
+            ps.setInt(1, linea.getValue());
+            ps.setLong(2, linea.getKey());
+            ps.setInt(3, linea.getValue());
+        })[0];
+
+        List<Long> sinStock = new ArrayList<>();
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] == 0) {
+                sinStock.add(lineas.get(i).getKey());
+            }
+        }
+        return sinStock;
+    }
+
+    @Override
+    public void reponerStock(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Integer>> lineas = new ArrayList<>(new TreeMap<>(cantidades).entrySet());
+
+        jdbcTemplate.batchUpdate(SQL_REPONER, lineas, lineas.size(), (ps, linea) -> {
+            ps.setInt(1, linea.getValue());
+            ps.setLong(2, linea.getKey());
+        });
+    }
+
+    @Override
+    public CatalogoFacetadoDTO filtrarCatalogo(FiltroCatalogoDTO filtro, List<Long> idsPorTexto, Pageable pageable) {
+        Long[] ids = idsPorTexto != null ? idsPorTexto.toArray(new Long[0]) : null;
+
+        // Filtros que no son facetas: se aplican igual a los resultados y a todos los recuentos.
+        // Igualdades y rangos sobre columnas indexadas; el texto se resuelve por ID con el índice
+        // de búsqueda y solo recurre a LIKE si este no está disponible
+        List<String> condiciones = new ArrayList<>();
+        List<Object> parametros = new ArrayList<>();
+        if (filtro.getActivo() != null) {
+            condiciones.add("p.activo = ?");
+            parametros.add(filtro.getActivo());
+        }
+        if (ids != null) {
+            condiciones.add("p.id = ANY(?)");
+            parametros.add(ids);
+        } else if (tieneValor(filtro.getTexto())) {
+            String patron = "%" + filtro.getTexto().trim().toLowerCase(Locale.ROOT) + "%";
+            condiciones.add("(LOWER(p.nombre) LIKE ? OR LOWER(p.descripcion) LIKE ?)");
+            parametros.add(patron);
+            parametros.add(patron);
+        }
+        if (filtro.getPrecioMin() != null) {
+            condiciones.add("p.precio >= ?");
+            parametros.add(filtro.getPrecioMin());
+        }
+        if (filtro.getPrecioMax() != null) {
+            condiciones.add("p.precio <= ?");
+            parametros.add(filtro.getPrecioMax());
+        }
+        if (filtro.getDestacado() != null) {
+            condiciones.add("p.destacado = ?");
+            parametros.add(filtro.getDestacado());
+        }
+        String donde = condiciones.isEmpty() ? "TRUE" : String.join(" AND ", condiciones);
+
+        Map<Faceta, String> seleccion = new LinkedHashMap<>();
+        for (Faceta faceta : FACETAS) {
+            String valor = faceta.valor().apply(filtro);
+            if (tieneValor(valor)) {
+                seleccion.put(faceta, valor.trim());
+            }
+        }
+
+        long[] total = new long[1];
+        Map<String, Map<String, Long>> facetas = new LinkedHashMap<>();
+        FACETAS.forEach(faceta -> facetas.put(faceta.nombre(), new LinkedHashMap<>()));
+        jdbcTemplate.query(sentencia(sqlFacetas(donde, seleccion), parametrosFacetas(parametros, seleccion)), rs -> {
+            String faceta = rs.getString("faceta");
+            if (faceta == null) {
+                total[0] = rs.getLong("cantidad");
+            } else {
+                facetas.get(faceta).put(rs.getString("valor"), rs.getLong("cantidad"));
+            }
+        });
+
+        List<ProductoResumenDTO> contenido = List.of();
+        if (total[0] > 0) {
+            StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNAS_RESUMEN)
+                    .append(" FROM productos p WHERE ").append(donde);
+            List<Object> parametrosPagina = new ArrayList<>(parametros);
+            seleccion.forEach((faceta, valor) -> {
+                sql.append(" AND p.").append(faceta.columna()).append(" = ?");
+                parametrosPagina.add(valor);
+            });
+            sql.append(" ORDER BY ").append(ordenar(pageable.getSort(), ids, parametrosPagina));
+            if (pageable.isPaged()) {
+                sql.append(" LIMIT ? OFFSET ?");
+                parametrosPagina.add(pageable.getPageSize());
+                parametrosPagina.add(pageable.getOffset());
+            }
+            contenido = jdbcTemplate.query(sentencia(sql.toString(), parametrosPagina), MAPEO_RESUMEN);
+        }
+        return new CatalogoFacetadoDTO(new PageImpl<>(contenido, pageable, total[0]), facetas);
+    }
+
+    // Una sola pasada sobre las filas que cumplen los filtros comunes: cada fila lleva una marca por
+    // faceta seleccionada, y el recuento de cada faceta exige todas las marcas salvo la suya.
+    // La fila con faceta nula es el total de productos que cumplen todos los filtros
+    private static String sqlFacetas(String donde, Map<Faceta, String> seleccion) {
+        StringBuilder sql = new StringBuilder("WITH base AS MATERIALIZED (SELECT ");
+        FACETAS.forEach(faceta -> sql.append("p.").append(faceta.columna()).append(", "));
+        seleccion.keySet().forEach(faceta -> sql.append("(p.").append(faceta.columna())
+                .append(" = ?) AS s_").append(faceta.columna()).append(", "));
+        sql.setLength(sql.length() - 2);
+        sql.append(" FROM productos p WHERE ").append(donde).append(") ");
+
+        sql.append("SELECT CAST(NULL AS varchar) AS faceta, CAST(NULL AS varchar) AS valor, count(*) AS cantidad ")
+                .append("FROM base WHERE ").append(marcas(seleccion, null));
+        for (Faceta faceta : FACETAS) {
+            sql.append(" UNION ALL SELECT '").append(faceta.nombre()).append("', ")
+                    .append(faceta.columna()).append(", count(*) FROM base WHERE ")
+                    .append(faceta.columna()).append(" IS NOT NULL AND ").append(marcas(seleccion, faceta))
+                    .append(" GROUP BY ").append(faceta.columna());
+        }
+        return sql.append(" ORDER BY faceta NULLS FIRST, cantidad DESC, valor").toString();
+    }
+
+    private static String marcas(Map<Faceta, String> seleccion, Faceta excluida) {
+        List<String> marcas = new ArrayList<>();
+        seleccion.keySet().stream()
+                .filter(faceta -> faceta != excluida)
+                .forEach(faceta -> marcas.add("s_" + faceta.columna()));
+        return marcas.isEmpty() ? "TRUE" : String.join(" AND ", marcas);
+    }
+
+    private static List<Object> parametrosFacetas(List<Object> parametros, Map<Faceta, String> seleccion) {
+        List<Object> todos = new ArrayList<>(seleccion.values());
+        todos.addAll(parametros);
+        return todos;
+    }
+
+    // Sin propiedades conocidas se ordena por relevancia (posición en idsPorTexto) o por nombre;
+    // el ID desempata para que la paginación sea estable
+    private static String ordenar(Sort sort, Long[] ids, List<Object> parametros) {
+        List<String> columnas = new ArrayList<>();
+        sort.forEach(orden -> {
+            String columna = COLUMNAS_ORDEN.get(orden.getProperty());
+            if (columna != null) {
+                columnas.add(columna + (orden.isAscending() ? " ASC" : " DESC"));
+            }
+        });
+        if (columnas.isEmpty()) {
+            if (ids != null) {
+                columnas.add("array_position(?, p.id)");
+                parametros.add(ids);
+            } else {
+                columnas.add("p.nombre ASC");
+            }
+        }
+        columnas.add("p.id");
+        return String.join(", ", columnas);
+    }
+
+    private static PreparedStatementCreator sentencia(String sql, List<Object> parametros) {
+        return con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            for (int i = 0; i < parametros.size(); i++) {
+                Object valor = parametros.get(i);
+                if (valor instanceof Long[] ids) {
+                    ps.setArray(i + 1, con.createArrayOf("bigint", ids));
+                } else {
+                    ps.setObject(i + 1, valor);
+                }
+            }
+            return ps;
+        };
+    }
+
+    private static boolean tieneValor(String valor) {
+        return valor != null && !valor.isBlank();
+    }
+}
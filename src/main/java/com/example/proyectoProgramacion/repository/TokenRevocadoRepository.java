@@ -0,0 +1,22 @@
+package com.example.proyectoProgramacion.repository;
+
+import com.example.proyectoProgramacion.model.entity.TokenRevocado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface TokenRevocadoRepository extends JpaRepository<TokenRevocado, String> {
+
+    // Revocaciones registradas desde la última sincronización que siguen vigentes
+    List<TokenRevocado> findByFechaRevocacionGreaterThanEqualAndExpiraEnAfter(Instant desde, Instant ahora);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocado t WHERE t.expiraEn < :ahora")
+    int eliminarExpirados(@Param("ahora") Instant ahora);
+}
@@ -4,8 +4,12 @@ import com.example.proyectoProgramacion.model.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,6 +20,16 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
+    /**
+     * Recorre los usuarios por cursor (keyset), sin OFFSET ni count.
+     *
+     * @param posicion Posición desde la que continuar
+     * @param sort Orden del listado; el ID se añade como desempate
+     * @param limite Número máximo de usuarios
+     * @return Ventana de usuarios con la posición de cada uno
+     */
+    Window<Usuario> findAllBy(ScrollPosition posicion, Sort sort, Limit limite);
+
     /**
      * Busca un usuario por su nombre de usuario o correo electrónico.
      *
@@ -33,6 +47,15 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
      */
     Optional<Usuario> findByUsername(String username);
 
+    /**
+     * Obtiene solo el ID de un usuario a partir de su nombre de usuario, sin cargar la entidad.
+     *
+     * @param username Nombre de usuario a buscar
+     * @return Un Optional con el ID si el usuario existe
+     */
+    @Query("SELECT u.id FROM Usuario u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
     /**
      * Busca un usuario por su correo electrónico.
      *
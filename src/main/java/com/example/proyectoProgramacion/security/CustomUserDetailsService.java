@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Servicio personalizado para cargar detalles de usuario para autenticación.
@@ -73,7 +75,31 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         return UserPrincipal.create(usuario);
     }
-}
-
 
+    /**
+     * Obtiene el estado de la cuenta de un usuario: si sigue activa y sus roles actuales.
+     * El resultado se cachea durante poco tiempo para que la autenticación sin estado detecte
+     * cuentas desactivadas o eliminadas y cambios de rol sin consultar la base de datos en cada
+     * petición.
+     *
+     * @param id ID del usuario
+     * @return Estado de la cuenta; inactiva y sin roles si el usuario no existe
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = "estadoCuenta", key = "#id")
+    public EstadoCuenta obtenerEstadoCuenta(Long id) {
+        return usuarioRepository.findById(id)
+                .map(usuario -> new EstadoCuenta(Boolean.TRUE.equals(usuario.getActivo()),
+                        List.copyOf(usuario.getRoles())))
+                .orElseGet(() -> new EstadoCuenta(false, List.of()));
+    }
 
+    /**
+     * Estado de una cuenta usado por la autenticación sin estado.
+     *
+     * @param activo Si la cuenta existe y está activa
+     * @param roles Roles actuales del usuario
+     */
+    public record EstadoCuenta(boolean activo, List<String> roles) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.proyectoProgramacion.security;
+
+import com.example.proyectoProgramacion.model.entity.TokenRevocado;
+import com.example.proyectoProgramacion.repository.TokenRevocadoRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Backend de revocaciones sobre la base de datos compartida.
+ * Se activa con {@code app.jwt.revocation.shared=true} cuando hay varias instancias.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jwt.revocation.shared", havingValue = "true")
+public class JpaTokenRevocationBackend implements TokenRevocationBackend {
+
+    private final TokenRevocadoRepository tokenRevocadoRepository;
+
+    public JpaTokenRevocationBackend(TokenRevocadoRepository tokenRevocadoRepository) {
+        this.tokenRevocadoRepository = tokenRevocadoRepository;
+    }
+
+    @Override
+    @Transactional
+    public void registrar(String tokenId, Instant expiraEn) {
+        tokenRevocadoRepository.save(new TokenRevocado(tokenId, expiraEn, Instant.now()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Instant> obtenerRevocadosDesde(Instant desde) {
+        return tokenRevocadoRepository
+                .findByFechaRevocacionGreaterThanEqualAndExpiraEnAfter(desde, Instant.now())
+                .stream()
+                .collect(Collectors.toMap(TokenRevocado::getTokenId, TokenRevocado::getExpiraEn));
+    }
+
+    @Override
+    @Transactional
+    public void eliminarExpirados(Instant ahora) {
+        tokenRevocadoRepository.eliminarExpirados(ahora);
+    }
+}
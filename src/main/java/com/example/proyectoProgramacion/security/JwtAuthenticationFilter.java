@@ -1,5 +1,6 @@
 package com.example.proyectoProgramacion.security;
 
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,6 +18,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Filtro para procesar y validar tokens JWT en cada solicitud.
@@ -31,10 +34,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
 
+    /**
+     * Si es true, el usuario se reconstruye a partir de los claims firmados del token
+     * en lugar de cargarse desde la base de datos en cada solicitud.
+     */
+    private final boolean autenticacionSinEstado;
+
     public JwtAuthenticationFilter(@org.springframework.lang.NonNull JwtTokenProvider tokenProvider, 
-                                 @org.springframework.lang.NonNull CustomUserDetailsService customUserDetailsService) {
+                                 @org.springframework.lang.NonNull CustomUserDetailsService customUserDetailsService,
+                                 @Value("${app.jwt.stateless:true}") boolean autenticacionSinEstado) {
         this.tokenProvider = tokenProvider;
         this.customUserDetailsService = customUserDetailsService;
+        this.autenticacionSinEstado = autenticacionSinEstado;
     }
 
     /**
@@ -48,10 +59,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromJWT(jwt);
+            Optional<Claims> claims = StringUtils.hasText(jwt)
+                    ? tokenProvider.getValidatedClaims(jwt)
+                    : Optional.empty();
 
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
+            UserDetails userDetails = claims.map(this::cargarUsuario).orElse(null);
+
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -65,6 +79,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Obtiene el usuario autenticado del token.
+     * En modo sin estado la identidad sale del token, pero el estado de la cuenta y los roles se
+     * toman de una caché de vida corta, para que una desactivación o un cambio de rol no esperen
+     * a que el token expire.
+     *
+     * @param claims Claims ya validados del token
+     * @return Detalles del usuario o null si la cuenta ya no está activa
+     */
+    private UserDetails cargarUsuario(Claims claims) {
+        if (!autenticacionSinEstado) {
+            return customUserDetailsService.loadUserById(tokenProvider.getUserId(claims));
+        }
+
+        UserPrincipal principal = tokenProvider.getUserPrincipal(claims);
+        CustomUserDetailsService.EstadoCuenta estado = customUserDetailsService.obtenerEstadoCuenta(principal.getId());
+        if (!estado.activo()) {
+            logger.debug("Token rechazado: la cuenta del usuario {} no está activa", principal.getId());
+            return null;
+        }
+        return UserPrincipal.fromClaims(principal.getId(), principal.getUsername(), estado.roles());
+    }
+
     /**
      * Extrae el token JWT del encabezado Authorization.
      *
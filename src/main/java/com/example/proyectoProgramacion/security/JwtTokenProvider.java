@@ -5,17 +5,24 @@ import io.jsonwebtoken.security.Keys;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Proveedor para generar y validar tokens JWT.
@@ -33,8 +40,27 @@ public class JwtTokenProvider {
     @Value("${app.jwt.expiration}")
     private int jwtExpirationInMs;
 
-    // Set para almacenar tokens invalidados
-    private final Set<String> blacklistedTokens = new HashSet<>();
+    // Revocaciones indexadas por el identificador del token
+    private final TokenRevocationStore revocationStore;
+
+    // Clave y parser precalculados: ambos son inmutables y seguros entre hilos
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    public JwtTokenProvider(TokenRevocationStore revocationStore) {
+        this.revocationStore = revocationStore;
+    }
+
+    /**
+     * Construye la clave de firma y el parser una sola vez a partir del secreto configurado.
+     */
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
 
     /**
      * Genera un token JWT para un usuario autenticado.
@@ -55,14 +81,17 @@ public class JwtTokenProvider {
 
         Map<String, Object> claims = new HashMap<>();
         claims.put("username", userPrincipal.getUsername());
-        claims.put("roles", userPrincipal.getAuthorities());
+        claims.put("roles", userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(Long.toString(userPrincipal.getId()))
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
@@ -78,15 +107,57 @@ public class JwtTokenProvider {
     )
     @Parameter(name = "token", description = "Token JWT del cual extraer el ID de usuario", required = true)
     public Long getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
         return Long.parseLong(claims.getSubject());
     }
 
+    /**
+     * Valida un token JWT y devuelve sus claims en una sola verificación de firma.
+     * Es el punto de entrada usado por el filtro de autenticación en cada solicitud.
+     *
+     * @param token Token JWT a validar
+     * @return Los claims del token, o vacío si el token es inválido, expiró o fue invalidado
+     */
+    public Optional<Claims> getValidatedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (revocationStore.estaRevocado(getTokenId(token, claims))) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Obtiene el ID de usuario de unos claims ya validados.
+     *
+     * @param claims Claims devueltos por {@link #getValidatedClaims(String)}
+     * @return ID del usuario
+     */
+    public Long getUserId(Claims claims) {
+        return Long.parseLong(claims.getSubject());
+    }
+
+    /**
+     * Reconstruye el usuario autenticado a partir de unos claims ya validados.
+     *
+     * @param claims Claims devueltos por {@link #getValidatedClaims(String)}
+     * @return UserPrincipal con el ID, nombre de usuario y roles del token
+     */
+    public UserPrincipal getUserPrincipal(Claims claims) {
+        return UserPrincipal.fromClaims(
+                Long.parseLong(claims.getSubject()),
+                claims.get("username", String.class),
+                extraerRoles(claims));
+    }
+
     /**
      * Valida un token JWT.
      *
@@ -99,24 +170,11 @@ public class JwtTokenProvider {
     )
     @Parameter(name = "authToken", description = "Token JWT a validar", required = true)
     public boolean validateToken(String authToken) {
-        try {
-            // Verificar si el token está en la lista negra
-            if (blacklistedTokens.contains(authToken)) {
-                return false;
-            }
-
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(authToken);
-            return true;
-        } catch (JwtException | IllegalArgumentException ex) {
-            return false;
-        }
+        return getValidatedClaims(authToken).isPresent();
     }
 
     /**
-     * Invalida un token JWT añadiéndolo a una lista negra.
+     * Invalida un token JWT hasta su fecha de expiración.
      *
      * @param token Token JWT a invalidar
      */
@@ -132,13 +190,9 @@ public class JwtTokenProvider {
 
         try {
             // Verificar que el token sea válido antes de invalidarlo
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
-            // Agregar el token a la lista negra
-            blacklistedTokens.add(token);
+            revocationStore.revocar(getTokenId(token, claims), claims.getExpiration().toInstant());
         } catch (JwtException | IllegalArgumentException ex) {
             throw new IllegalArgumentException("Token JWT inválido", ex);
         }
@@ -151,39 +205,43 @@ public class JwtTokenProvider {
      * @return true si el token está en la lista negra, false en caso contrario
      */
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+        try {
+            return revocationStore.estaRevocado(getTokenId(token, jwtParser.parseClaimsJws(token).getBody()));
+        } catch (JwtException | IllegalArgumentException ex) {
+            return false;
+        }
     }
 
     /**
-     * Limpia tokens expirados de la lista negra para gestionar el uso de memoria.
-     * Este método debería ser llamado periódicamente, por ejemplo, mediante un programador.
+     * Identificador usado para revocar un token: el claim {@code jti}, o la firma
+     * para los tokens emitidos antes de que se incluyera.
      */
-    public void cleanupExpiredBlacklistedTokens() {
-        Date now = new Date();
-        blacklistedTokens.removeIf(token -> {
-            try {
-                Claims claims = Jwts.parserBuilder()
-                        .setSigningKey(getSigningKey())
-                        .build()
-                        .parseClaimsJws(token)
-                        .getBody();
-
-                return claims.getExpiration().before(now);
-            } catch (Exception e) {
-                // Si hay un error al parsear, probablemente el token ya expiró o es inválido
-                return true;
-            }
-        });
+    private String getTokenId(String token, Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        return token.substring(token.lastIndexOf('.') + 1);
     }
 
     /**
-     * Obtiene la clave de firma para el token.
-     *
-     * @return Clave de firma
+     * Obtiene los roles del claim {@code roles}. Acepta tanto cadenas como el formato
+     * {@code {"authority": "ROLE_X"}} de los tokens emitidos por versiones anteriores.
      */
-    private Key getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private List<String> extraerRoles(Claims claims) {
+        Object roles = claims.get("roles");
+        if (!(roles instanceof Collection<?> coleccion)) {
+            return Collections.emptyList();
+        }
+
+        List<String> nombres = new ArrayList<>(coleccion.size());
+        for (Object rol : coleccion) {
+            if (rol instanceof Map<?, ?> mapa && mapa.get("authority") != null) {
+                nombres.add(mapa.get("authority").toString());
+            } else if (rol != null) {
+                nombres.add(rol.toString());
+            }
+        }
+        return nombres;
     }
 }
 
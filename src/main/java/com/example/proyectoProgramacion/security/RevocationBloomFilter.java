@@ -0,0 +1,74 @@
+package com.example.proyectoProgramacion.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom seguro entre hilos para los identificadores de tokens revocados.
+ * Un resultado negativo es definitivo (el token nunca fue revocado), lo que permite
+ * evitar la consulta al almacén en la gran mayoría de solicitudes.
+ * No admite borrados: {@link TokenRevocationStore} lo reconstruye al purgar expirados.
+ */
+class RevocationBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    RevocationBloomFilter(int elementosEsperados, double tasaFalsosPositivos) {
+        int n = Math.max(elementosEsperados, 1);
+        long m = (long) Math.ceil(-n * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.numBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 63));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = indice(h1 + i * h2);
+            long mascara = 1L << (bit & 63);
+            int palabra = bit >>> 6;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    boolean puedeContener(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= numHashes; i++) {
+            int bit = indice(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indice(int hashCombinado) {
+        return (hashCombinado & Integer.MAX_VALUE) % numBits;
+    }
+
+    /**
+     * FNV-1a de 64 bits con una mezcla final para repartir mejor los bits altos y bajos.
+     */
+    private static long hash64(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= (h >>> 33);
+        h *= 0xff51afd7ed558ccdL;
+        h ^= (h >>> 33);
+        return h;
+    }
+}
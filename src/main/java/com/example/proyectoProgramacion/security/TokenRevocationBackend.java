@@ -0,0 +1,34 @@
+package com.example.proyectoProgramacion.security;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Almacenamiento compartido de revocaciones para que un token invalidado en un nodo
+ * deje de aceptarse en todos los demás.
+ */
+public interface TokenRevocationBackend {
+
+    /**
+     * Registra la revocación de un token.
+     *
+     * @param tokenId Identificador del token (jti)
+     * @param expiraEn Fecha de expiración del token
+     */
+    void registrar(String tokenId, Instant expiraEn);
+
+    /**
+     * Obtiene las revocaciones registradas desde un instante dado que aún no han expirado.
+     *
+     * @param desde Instante desde el cual buscar revocaciones
+     * @return Mapa de identificador de token a fecha de expiración
+     */
+    Map<String, Instant> obtenerRevocadosDesde(Instant desde);
+
+    /**
+     * Elimina las revocaciones de tokens que ya expiraron.
+     *
+     * @param ahora Instante actual
+     */
+    void eliminarExpirados(Instant ahora);
+}
@@ -0,0 +1,166 @@
+package com.example.proyectoProgramacion.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Almacén concurrente de tokens revocados, indexado por el identificador del token (jti).
+ * <ul>
+ *   <li>Un filtro de Bloom responde sin consultar el mapa para los tokens nunca revocados.</li>
+ *   <li>Cada revocación se guarda solo hasta que el token expira; una cola ordenada por
+ *       expiración permite purgar sin volver a parsear ningún token.</li>
+ *   <li>Si existe un {@link TokenRevocationBackend}, las revocaciones se publican en él y se
+ *       sincronizan periódicamente desde los demás nodos.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class TokenRevocationStore {
+
+    // Margen para no perder revocaciones por desfases de reloj entre nodos
+    private static final Duration MARGEN_SINCRONIZACION = Duration.ofSeconds(5);
+
+    private final Map<String, Instant> revocados = new ConcurrentHashMap<>();
+    private final DelayQueue<Revocacion> colaExpiracion = new DelayQueue<>();
+    private final Optional<TokenRevocationBackend> backend;
+    private final int elementosEsperados;
+    private final double tasaFalsosPositivos;
+
+    private volatile RevocationBloomFilter filtro;
+    private volatile Instant ultimaSincronizacion = Instant.EPOCH;
+
+    public TokenRevocationStore(
+            @Value("${app.jwt.revocation.expected-insertions:100000}") int elementosEsperados,
+            @Value("${app.jwt.revocation.false-positive-rate:0.01}") double tasaFalsosPositivos,
+            Optional<TokenRevocationBackend> backend) {
+        this.elementosEsperados = elementosEsperados;
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        this.backend = backend;
+        this.filtro = new RevocationBloomFilter(elementosEsperados, tasaFalsosPositivos);
+    }
+
+    /**
+     * Revoca un token hasta su fecha de expiración y publica la revocación en el backend compartido.
+     *
+     * @param tokenId Identificador del token
+     * @param expiraEn Fecha de expiración del token
+     */
+    public void revocar(String tokenId, Instant expiraEn) {
+        if (registrarLocal(tokenId, expiraEn)) {
+            backend.ifPresent(b -> b.registrar(tokenId, expiraEn));
+        }
+    }
+
+    /**
+     * Indica si un token fue revocado.
+     *
+     * @param tokenId Identificador del token
+     * @return true si el token está revocado
+     */
+    public boolean estaRevocado(String tokenId) {
+        // El filtro no da falsos negativos: si dice que no, el token nunca fue revocado
+        return filtro.puedeContener(tokenId) && revocados.containsKey(tokenId);
+    }
+
+    /**
+     * Elimina las revocaciones de tokens ya expirados y reconstruye el filtro de Bloom
+     * para que deje de reflejarlas.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.cleanup-interval:60000}")
+    public void purgarExpirados() {
+        int eliminados = 0;
+        Revocacion expirada;
+        while ((expirada = colaExpiracion.poll()) != null) {
+            if (revocados.remove(expirada.tokenId(), expirada.expiraEn())) {
+                eliminados++;
+            }
+        }
+
+        if (eliminados > 0) {
+            reconstruirFiltro();
+            log.debug("Purgadas {} revocaciones expiradas; quedan {}", eliminados, revocados.size());
+        }
+
+        backend.ifPresent(b -> {
+            try {
+                b.eliminarExpirados(Instant.now());
+            } catch (RuntimeException e) {
+                log.warn("No se pudieron purgar las revocaciones compartidas: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Incorpora las revocaciones registradas por otros nodos desde la última sincronización.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval:5000}")
+    public void sincronizar() {
+        if (backend.isEmpty()) {
+            return;
+        }
+
+        Instant inicio = Instant.now();
+        try {
+            Instant desde = ultimaSincronizacion.equals(Instant.EPOCH)
+                    ? Instant.EPOCH
+                    : ultimaSincronizacion.minus(MARGEN_SINCRONIZACION);
+            backend.get().obtenerRevocadosDesde(desde).forEach(this::registrarLocal);
+            ultimaSincronizacion = inicio;
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron sincronizar las revocaciones compartidas: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return Número de revocaciones vigentes en este nodo
+     */
+    public int size() {
+        return revocados.size();
+    }
+
+    private boolean registrarLocal(String tokenId, Instant expiraEn) {
+        if (!expiraEn.isAfter(Instant.now())) {
+            return false;
+        }
+        if (revocados.putIfAbsent(tokenId, expiraEn) != null) {
+            return false;
+        }
+        // Primero el mapa y después el filtro: la reconstrucción parte siempre del mapa
+        filtro.agregar(tokenId);
+        colaExpiracion.add(new Revocacion(tokenId, expiraEn));
+        return true;
+    }
+
+    private void reconstruirFiltro() {
+        RevocationBloomFilter nuevo = new RevocationBloomFilter(
+                Math.max(elementosEsperados, revocados.size() * 2), tasaFalsosPositivos);
+        revocados.keySet().forEach(nuevo::agregar);
+        filtro = nuevo;
+        // Segunda pasada para las revocaciones añadidas al filtro anterior durante la reconstrucción
+        revocados.keySet().forEach(nuevo::agregar);
+    }
+
+    private record Revocacion(String tokenId, Instant expiraEn) implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), expiraEn));
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return expiraEn.compareTo(((Revocacion) otro).expiraEn);
+        }
+    }
+}
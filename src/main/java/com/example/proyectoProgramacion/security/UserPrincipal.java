@@ -83,6 +83,25 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    /**
+     * Crea un UserPrincipal a partir de los datos firmados en un token JWT.
+     * No consulta la base de datos, por lo que los datos de perfil (nombre, apellido, email)
+     * y la contraseña quedan vacíos.
+     *
+     * @param id ID del usuario (claim {@code sub})
+     * @param username Nombre de usuario (claim {@code username})
+     * @param roles Roles del usuario (claim {@code roles})
+     * @return UserPrincipal para uso en la autenticación
+     */
+    public static UserPrincipal fromClaims(Long id, String username, Collection<String> roles) {
+        Objects.requireNonNull(id, "El ID del usuario no puede ser nulo");
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+
+        return new UserPrincipal(id, null, null, username, null, null, authorities, true);
+    }
+
     // Implementación de métodos de UserDetails
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
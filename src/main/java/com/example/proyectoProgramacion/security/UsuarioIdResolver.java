@@ -0,0 +1,54 @@
+package com.example.proyectoProgramacion.security;
+
+import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
+import com.example.proyectoProgramacion.repository.UsuarioRepository;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resuelve el ID del usuario autenticado sin cargar la entidad {@code Usuario}.
+ * <p>Si el principal es un {@link UserPrincipal} el ID ya viaja en él (sesión web o claims del JWT);
+ * en otro caso se consulta solo la columna ID por nombre de usuario y se guarda en la caché
+ * {@code usuarioIdPorUsername}, ya que el ID de un usuario no cambia.</p>
+ */
+@Component
+public class UsuarioIdResolver {
+
+    private final UsuarioRepository usuarioRepository;
+    // Proxy de este mismo bean: una llamada interna a resolver() no pasaría por la caché
+    private final UsuarioIdResolver self;
+
+    public UsuarioIdResolver(UsuarioRepository usuarioRepository, @Lazy UsuarioIdResolver self) {
+        this.usuarioRepository = usuarioRepository;
+        this.self = self;
+    }
+
+    /**
+     * Obtiene el ID del usuario autenticado.
+     *
+     * @param authentication Autenticación de la petición actual
+     * @return ID del usuario
+     * @throws ResourceNotFoundException si el usuario no existe
+     */
+    public Long obtenerId(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal && principal.getId() != null) {
+            return principal.getId();
+        }
+        return self.resolver(authentication.getName());
+    }
+
+    /**
+     * Obtiene el ID de un usuario a partir de su nombre de usuario.
+     *
+     * @param username Nombre de usuario
+     * @return ID del usuario
+     * @throws ResourceNotFoundException si el usuario no existe
+     */
+    @Cacheable(cacheNames = "usuarioIdPorUsername", key = "#username")
+    public Long resolver(String username) {
+        return usuarioRepository.findIdByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+    }
+}
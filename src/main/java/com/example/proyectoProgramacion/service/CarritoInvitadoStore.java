@@ -0,0 +1,199 @@
+package com.example.proyectoProgramacion.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.UnaryOperator;
+
+/**
+ * Almacén de los carritos de usuarios no autenticados.
+ * <p>Cada carrito guarda solo pares (ID de producto, cantidad) en dos arrays primitivos, fuera de
+ * la sesión HTTP, en una caché acotada por número de sesiones y por inactividad. Nombres, precios
+ * e imágenes se completan desde el catálogo al mostrar el carrito.</p>
+ * <p>La clave no es el ID de la sesión, que cambia al iniciar sesión (protección contra fijación de
+ * sesión) justo antes de fusionar el carrito, sino un identificador aleatorio guardado como
+ * atributo de la sesión, que se copia a la sesión nueva.</p>
+ */
+@Component
+public class CarritoInvitadoStore {
+
+    private static final String ATRIBUTO_CARRITO = CarritoInvitadoStore.class.getName() + ".ID";
+
+    private final Cache<String, CarritoCompacto> carritos;
+    private final int maximoLineas;
+
+    public CarritoInvitadoStore(
+            @Value("${app.carrito-invitado.spec:maximumSize=50000,expireAfterAccess=2h}") String spec,
+            @Value("${app.carrito-invitado.maximo-lineas:50}") int maximoLineas) {
+        this.carritos = Caffeine.from(spec).build();
+        this.maximoLineas = maximoLineas;
+    }
+
+    /**
+     * Obtiene las líneas del carrito de la sesión actual, sin crear la sesión si no existe.
+     *
+     * @return Cantidad por ID de producto, en el orden en que se agregaron
+     */
+    public Map<Long, Integer> obtenerLineas() {
+        return idCarrito(false)
+                .map(carritos::getIfPresent)
+                .map(CarritoCompacto::comoMapa)
+                .orElseGet(LinkedHashMap::new);
+    }
+
+    /**
+     * Suma una cantidad a la línea del producto, creándola si no existe.
+     *
+     * @param productoId ID del producto
+     * @param cantidad Cantidad a sumar
+     * @return Cantidad resultante de la línea
+     * @throws IllegalStateException si el carrito ya tiene el número máximo de líneas
+     */
+    public int agregar(Long productoId, int cantidad) {
+        CarritoCompacto resultado = carritos.asMap().compute(idCarrito(true).orElseThrow(),
+                (id, actual) -> (actual == null ? CarritoCompacto.VACIO : actual)
+                        .conCantidad(productoId, cantidadActual(actual, productoId) + cantidad, maximoLineas));
+        return cantidadActual(resultado, productoId);
+    }
+
+    /**
+     * Fija la cantidad de una línea existente.
+     *
+     * @param productoId ID del producto
+     * @param cantidad Nueva cantidad
+     * @return true si la línea existía
+     */
+    public boolean actualizar(Long productoId, int cantidad) {
+        return modificarExistente(productoId, actual -> actual.conCantidad(productoId, cantidad, maximoLineas));
+    }
+
+    /**
+     * Elimina la línea de un producto.
+     *
+     * @param productoId ID del producto
+     * @return true si la línea existía
+     */
+    public boolean eliminar(Long productoId) {
+        return modificarExistente(productoId, actual -> actual.sin(productoId));
+    }
+
+    /**
+     * Vacía el carrito de la sesión actual.
+     */
+    public void vaciar() {
+        idCarrito(false).ifPresent(carritos::invalidate);
+    }
+
+    private boolean modificarExistente(Long productoId, UnaryOperator<CarritoCompacto> cambio) {
+        Optional<String> idCarrito = idCarrito(false);
+        if (idCarrito.isEmpty()) {
+            return false;
+        }
+        boolean[] existia = new boolean[1];
+        carritos.asMap().computeIfPresent(idCarrito.get(), (id, actual) -> {
+            existia[0] = actual.indice(productoId) >= 0;
+            if (!existia[0]) {
+                return actual;
+            }
+            CarritoCompacto nuevo = cambio.apply(actual);
+            return nuevo.productoIds.length == 0 ? null : nuevo;
+        });
+        return existia[0];
+    }
+
+    private static int cantidadActual(CarritoCompacto carrito, Long productoId) {
+        if (carrito == null) {
+            return 0;
+        }
+        int indice = carrito.indice(productoId);
+        return indice < 0 ? 0 : carrito.cantidades[indice];
+    }
+
+    private static Optional<String> idCarrito(boolean crear) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return Optional.empty();
+        }
+        HttpSession sesion = atributos.getRequest().getSession(crear);
+        if (sesion == null) {
+            return Optional.empty();
+        }
+        String id = (String) sesion.getAttribute(ATRIBUTO_CARRITO);
+        if (id == null && crear) {
+            id = UUID.randomUUID().toString();
+            sesion.setAttribute(ATRIBUTO_CARRITO, id);
+        }
+        return Optional.ofNullable(id);
+    }
+
+    /**
+     * Carrito inmutable como arrays paralelos; cada cambio produce una copia, de modo que las
+     * lecturas concurrentes nunca ven un estado a medias.
+     */
+    private static final class CarritoCompacto {
+
+        private static final CarritoCompacto VACIO = new CarritoCompacto(new long[0], new int[0]);
+
+        private final long[] productoIds;
+        private final int[] cantidades;
+
+        private CarritoCompacto(long[] productoIds, int[] cantidades) {
+            this.productoIds = productoIds;
+            this.cantidades = cantidades;
+        }
+
+        private int indice(long productoId) {
+            for (int i = 0; i < productoIds.length; i++) {
+                if (productoIds[i] == productoId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private CarritoCompacto conCantidad(long productoId, int cantidad, int maximoLineas) {
+            int indice = indice(productoId);
+            if (indice >= 0) {
+                int[] nuevasCantidades = cantidades.clone();
+                nuevasCantidades[indice] = cantidad;
+                return new CarritoCompacto(productoIds, nuevasCantidades);
+            }
+            if (productoIds.length >= maximoLineas) {
+                throw new IllegalStateException("El carrito admite como máximo " + maximoLineas + " productos distintos");
+            }
+            long[] nuevosIds = Arrays.copyOf(productoIds, productoIds.length + 1);
+            int[] nuevasCantidades = Arrays.copyOf(cantidades, cantidades.length + 1);
+            nuevosIds[productoIds.length] = productoId;
+            nuevasCantidades[cantidades.length] = cantidad;
+            return new CarritoCompacto(nuevosIds, nuevasCantidades);
+        }
+
+        private CarritoCompacto sin(long productoId) {
+            int indice = indice(productoId);
+            long[] nuevosIds = new long[productoIds.length - 1];
+            int[] nuevasCantidades = new int[cantidades.length - 1];
+            System.arraycopy(productoIds, 0, nuevosIds, 0, indice);
+            System.arraycopy(productoIds, indice + 1, nuevosIds, indice, nuevosIds.length - indice);
+            System.arraycopy(cantidades, 0, nuevasCantidades, 0, indice);
+            System.arraycopy(cantidades, indice + 1, nuevasCantidades, indice, nuevasCantidades.length - indice);
+            return new CarritoCompacto(nuevosIds, nuevasCantidades);
+        }
+
+        private Map<Long, Integer> comoMapa() {
+            Map<Long, Integer> lineas = new LinkedHashMap<>();
+            for (int i = 0; i < productoIds.length; i++) {
+                lineas.put(productoIds[i], cantidades[i]);
+            }
+            return lineas;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.proyectoProgramacion.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera los números de orden visibles para el cliente sin consultar la base de datos.
+ * <p>Cada número codifica un entero de 63 bits al estilo Snowflake: 41 bits de milisegundos desde
+ * 2025-01-01, 10 bits de nodo ({@code app.ordenes.nodo}, distinto en cada instancia) y 12 bits de
+ * secuencia. Se escribe como {@code ORD-} más 13 caracteres en base32 de Crockford (17 en total),
+ * de ancho fijo, así que el orden alfabético coincide con el de creación.</p>
+ * <p>El estado es un único {@link AtomicLong} con el milisegundo y la secuencia del último número.
+ * Si el reloj no avanza o retrocede se sigue contando desde el último valor, y al agotar los 4096
+ * números de un milisegundo se pasa al siguiente sin esperar.</p>
+ */
+@Component
+public class GeneradorNumeroOrden {
+
+    private static final String PREFIJO = "ORD-";
+    private static final char[] ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int LONGITUD = 13;
+
+    private static final long EPOCA = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final int BITS_NODO = 10;
+    private static final int BITS_SECUENCIA = 12;
+    private static final long NODO_MAXIMO = (1L << BITS_NODO) - 1;
+
+    private final long nodo;
+    // (milisegundos desde EPOCA << BITS_SECUENCIA) | secuencia del último número emitido
+    private final AtomicLong ultimo = new AtomicLong();
+
+    public GeneradorNumeroOrden(@Value("${app.ordenes.nodo:0}") long nodo) {
+        if (nodo < 0 || nodo > NODO_MAXIMO) {
+            throw new IllegalArgumentException("app.ordenes.nodo debe estar entre 0 y " + NODO_MAXIMO);
+        }
+        this.nodo = nodo;
+    }
+
+    /**
+     * Obtiene un número de orden nuevo, único entre todos los nodos configurados con distinto ID.
+     *
+     * @return Número de orden de 17 caracteres
+     */
+    public String siguiente() {
+        long actual;
+        long siguiente;
+        do {
+            actual = ultimo.get();
+            long ahora = (System.currentTimeMillis() - EPOCA) << BITS_SECUENCIA;
+            // Si la secuencia se desborda, el acarreo pasa al milisegundo siguiente
+            siguiente = Math.max(ahora, actual + 1);
+        } while (!ultimo.compareAndSet(actual, siguiente));
+
+        long milisegundos = siguiente >>> BITS_SECUENCIA;
+        long secuencia = siguiente & ((1L << BITS_SECUENCIA) - 1);
+        return PREFIJO + codificar((milisegundos << (BITS_NODO + BITS_SECUENCIA))
+                | (nodo << BITS_SECUENCIA)
+                | secuencia);
+    }
+
+    private static String codificar(long valor) {
+        char[] caracteres = new char[LONGITUD];
+        for (int i = LONGITUD - 1; i >= 0; i--) {
+            caracteres[i] = ALFABETO[(int) (valor & 31)];
+            valor >>>= 5;
+        }
+        return new String(caracteres);
+    }
+}
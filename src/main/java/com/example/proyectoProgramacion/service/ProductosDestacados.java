@@ -0,0 +1,73 @@
+package com.example.proyectoProgramacion.service;
+
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lista precalculada de los productos destacados y activos, los más recientes primero.
+ * <p>Se carga al arrancar con una consulta limitada a {@link #TAMANO_MAXIMO} filas y se sustituye
+ * entera, de forma atómica, cada vez que se confirma un cambio que puede alterarla, incluidos los
+ * cambios de stock de sus productos por órdenes o ajustes de inventario. Las lecturas
+ * solo toman la referencia vigente: no consultan la base de datos ni bloquean.</p>
+ */
+@Slf4j
+@Component
+public class ProductosDestacados {
+
+    /** Número máximo de productos destacados que se precalculan y se pueden pedir. */
+    public static final int TAMANO_MAXIMO = 50;
+
+    private final ProductoRepository productoRepository;
+    // Nula hasta la primera carga
+    private final AtomicReference<List<ProductoResumenDTO>> lista = new AtomicReference<>();
+
+    public ProductosDestacados(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    /**
+     * Vuelve a calcular la lista y la publica. Las llamadas se serializan para que un cálculo
+     * anterior no sustituya a uno posterior; si la consulta falla se conserva la lista vigente.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refrescar() {
+        try {
+            lista.set(List.copyOf(productoRepository.findResumenesDestacados(Limit.of(TAMANO_MAXIMO))));
+        } catch (RuntimeException e) {
+            log.error("No se pudo recalcular la lista de productos destacados", e);
+        }
+    }
+
+    /**
+     * Obtiene los primeros productos destacados.
+     *
+     * @param limite Número máximo de productos, hasta {@link #TAMANO_MAXIMO}
+     * @return Productos destacados, los más recientes primero
+     */
+    public List<ProductoResumenDTO> obtener(int limite) {
+        int limiteFinal = Math.min(limite, TAMANO_MAXIMO);
+        List<ProductoResumenDTO> actual = lista.get();
+        if (actual == null) {
+            // Todavía no se cargó: consulta directa con el mismo límite
+            return productoRepository.findResumenesDestacados(Limit.of(limiteFinal));
+        }
+        return actual.subList(0, Math.min(limiteFinal, actual.size()));
+    }
+
+    /**
+     * @param id ID de un producto
+     * @return true si el producto está en la lista vigente
+     */
+    public boolean contiene(Long id) {
+        List<ProductoResumenDTO> actual = lista.get();
+        return actual != null && actual.stream().anyMatch(producto -> producto.getId().equals(id));
+    }
+}
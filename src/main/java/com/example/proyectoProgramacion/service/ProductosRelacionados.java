@@ -0,0 +1,260 @@
+package com.example.proyectoProgramacion.service;
+
+import com.example.proyectoProgramacion.mapper.ProductoMapper;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listas precalculadas de productos relacionados para la página de detalle.
+ * <p>Los relacionados de un producto activo son otros productos activos de su misma categoría:
+ * primero los que comparten franquicia y tipo de prenda, luego solo franquicia, luego solo tipo de
+ * prenda y por último el resto, y dentro de cada grupo los más recientes primero. Se guardan hasta
+ * {@link #TAMANO_MAXIMO} por producto.</p>
+ * <p>Se calculan al arrancar y, tras cada cambio confirmado en un producto, se recalculan solo las
+ * categorías afectadas. Las listas guardan IDs y se publican como un mapa inmutable que sustituye
+ * al anterior; los datos de cada tarjeta están aparte, de modo que un cambio de stock solo
+ * reemplaza la tarjeta del producto sin recalcular listas. Las lecturas no consultan la base de
+ * datos ni bloquean.</p>
+ */
+@Slf4j
+@Component
+public class ProductosRelacionados {
+
+    /** Número máximo de relacionados que se precalculan por producto. */
+    public static final int TAMANO_MAXIMO = 8;
+
+    private static final int TAMANO_LOTE_CARGA = 500;
+
+    private static final Comparator<Entrada> MAS_RECIENTE_PRIMERO = Comparator
+            .comparing(Entrada::fechaCreacion, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Entrada::id, Comparator.reverseOrder());
+
+    private final ProductoRepository productoRepository;
+    private final ProductoMapper productoMapper;
+
+    // Catálogo activo; solo se modifica dentro de los métodos sincronizados
+    private final Map<Long, Entrada> entradas = new HashMap<>();
+    private final Map<Categoria, Map<Long, Entrada>> porCategoria = new EnumMap<>(Categoria.class);
+
+    // ID de producto -> IDs de sus relacionados; nulo hasta la carga inicial
+    private volatile Map<Long, List<Long>> relacionados;
+    // ID de producto activo -> datos de su tarjeta
+    private final Map<Long, ProductoResumenDTO> resumenes = new ConcurrentHashMap<>();
+
+    public ProductosRelacionados(ProductoRepository productoRepository, ProductoMapper productoMapper) {
+        this.productoRepository = productoRepository;
+        this.productoMapper = productoMapper;
+    }
+
+    /**
+     * Carga el catálogo activo por lotes y calcula todas las listas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reconstruir() {
+        entradas.clear();
+        porCategoria.clear();
+        resumenes.clear();
+        try {
+            Page<Producto> lote;
+            int pagina = 0;
+            do {
+                lote = productoRepository.findAll(PageRequest.of(pagina++, TAMANO_LOTE_CARGA, Sort.by("id")));
+                for (Producto producto : lote) {
+                    agregar(producto);
+                }
+            } while (lote.hasNext());
+        } catch (RuntimeException e) {
+            log.error("No se pudieron calcular los productos relacionados", e);
+            return;
+        }
+
+        Map<Long, List<Long>> nuevo = new HashMap<>();
+        porCategoria.keySet().forEach(categoria -> nuevo.putAll(calcular(categoria)));
+        relacionados = Collections.unmodifiableMap(nuevo);
+        log.info("Productos relacionados calculados para {} productos activos", nuevo.size());
+    }
+
+    /**
+     * Añade o reemplaza un producto y recalcula su categoría actual y la anterior.
+     *
+     * @param producto Producto modificado
+     */
+    public synchronized void indexar(Producto producto) {
+        Set<Categoria> afectadas = EnumSet.noneOf(Categoria.class);
+        Entrada anterior = quitar(producto.getId());
+        if (anterior != null) {
+            afectadas.add(anterior.categoria());
+        }
+        Entrada nueva = agregar(producto);
+        if (nueva != null) {
+            afectadas.add(nueva.categoria());
+        }
+        publicar(afectadas, producto.getId());
+    }
+
+    /**
+     * Elimina un producto y recalcula su categoría.
+     *
+     * @param id ID del producto
+     */
+    public synchronized void eliminar(Long id) {
+        Entrada anterior = quitar(id);
+        if (anterior != null) {
+            publicar(EnumSet.of(anterior.categoria()), id);
+        }
+    }
+
+    /**
+     * Reemplaza las tarjetas de productos cuyo stock cambió. El orden de las listas no depende del
+     * stock, así que no se recalculan.
+     *
+     * @param ids IDs de los productos modificados
+     */
+    public synchronized void actualizarStock(Collection<Long> ids) {
+        List<Long> activos = ids.stream().filter(entradas::containsKey).toList();
+        if (relacionados == null || activos.isEmpty()) {
+            return;
+        }
+        for (ProductoResumenDTO resumen : productoRepository.findResumenesPorIds(activos)) {
+            if (entradas.containsKey(resumen.getId())) {
+                resumenes.put(resumen.getId(), resumen);
+            }
+        }
+    }
+
+    /**
+     * Obtiene los relacionados precalculados de un producto.
+     *
+     * @param id ID del producto
+     * @param limite Número máximo de productos, hasta {@link #TAMANO_MAXIMO}
+     * @return Relacionados (vacía si el producto no está activo); vacío si aún no se calcularon
+     */
+    public Optional<List<ProductoResumenDTO>> obtener(Long id, int limite) {
+        Map<Long, List<Long>> actual = relacionados;
+        if (actual == null) {
+            return Optional.empty();
+        }
+        // Un producto retirado puede seguir en una lista hasta que se publica la nueva: se omite
+        return Optional.of(actual.getOrDefault(id, List.of()).stream()
+                .map(resumenes::get)
+                .filter(Objects::nonNull)
+                .limit(limite)
+                .toList());
+    }
+
+    private Entrada agregar(Producto producto) {
+        if (!producto.isActivo() || producto.getCategoria() == null) {
+            return null;
+        }
+        Entrada entrada = new Entrada(producto.getId(), producto.getCategoria(), producto.getFranquicia(),
+                producto.getTipoPrenda(), producto.getFechaCreacion());
+        entradas.put(entrada.id(), entrada);
+        resumenes.put(entrada.id(), productoMapper.toResumenDto(producto));
+        porCategoria.computeIfAbsent(entrada.categoria(), c -> new HashMap<>()).put(entrada.id(), entrada);
+        return entrada;
+    }
+
+    private Entrada quitar(Long id) {
+        Entrada anterior = entradas.remove(id);
+        if (anterior != null) {
+            porCategoria.get(anterior.categoria()).remove(id);
+            resumenes.remove(id);
+        }
+        return anterior;
+    }
+
+    // Copia el mapa publicado, sustituye las listas de las categorías afectadas y lo vuelve a publicar
+    private void publicar(Set<Categoria> afectadas, Long idModificado) {
+        if (relacionados == null) {
+            return;
+        }
+        Map<Long, List<Long>> nuevo = new HashMap<>(relacionados);
+        nuevo.remove(idModificado);
+        afectadas.forEach(categoria -> nuevo.putAll(calcular(categoria)));
+        relacionados = Collections.unmodifiableMap(nuevo);
+    }
+
+    // Agrupa la categoría por franquicia, tipo de prenda y ambos, cada grupo del más reciente al más
+    // antiguo; cada lista se completa recorriendo los grupos por afinidad, lineal en TAMANO_MAXIMO
+    private Map<Long, List<Long>> calcular(Categoria categoria) {
+        List<Entrada> todas = new ArrayList<>(porCategoria.getOrDefault(categoria, Map.of()).values());
+        todas.sort(MAS_RECIENTE_PRIMERO);
+
+        Map<String, List<Entrada>> porFranquicia = new HashMap<>();
+        Map<String, List<Entrada>> porTipoPrenda = new HashMap<>();
+        Map<List<String>, List<Entrada>> porAmbos = new HashMap<>();
+        for (Entrada entrada : todas) {
+            if (entrada.franquicia() != null) {
+                porFranquicia.computeIfAbsent(entrada.franquicia(), f -> new ArrayList<>()).add(entrada);
+            }
+            if (entrada.tipoPrenda() != null) {
+                porTipoPrenda.computeIfAbsent(entrada.tipoPrenda(), t -> new ArrayList<>()).add(entrada);
+            }
+            if (entrada.franquicia() != null && entrada.tipoPrenda() != null) {
+                porAmbos.computeIfAbsent(List.of(entrada.franquicia(), entrada.tipoPrenda()),
+                        k -> new ArrayList<>()).add(entrada);
+            }
+        }
+
+        Map<Long, List<Long>> resultado = new HashMap<>();
+        for (Entrada entrada : todas) {
+            Set<Long> lista = new LinkedHashSet<>();
+            if (entrada.franquicia() != null && entrada.tipoPrenda() != null) {
+                completar(lista, entrada, porAmbos.get(List.of(entrada.franquicia(), entrada.tipoPrenda())));
+            }
+            if (entrada.franquicia() != null) {
+                completar(lista, entrada, porFranquicia.get(entrada.franquicia()));
+            }
+            if (entrada.tipoPrenda() != null) {
+                completar(lista, entrada, porTipoPrenda.get(entrada.tipoPrenda()));
+            }
+            completar(lista, entrada, todas);
+            resultado.put(entrada.id(), List.copyOf(lista));
+        }
+        return resultado;
+    }
+
+    private static void completar(Set<Long> lista, Entrada entrada, List<Entrada> candidatos) {
+        // Solo se saltan el propio producto y los ya elegidos: a lo sumo TAMANO_MAXIMO + 1 candidatos
+        for (Entrada candidato : candidatos) {
+            if (lista.size() >= TAMANO_MAXIMO) {
+                return;
+            }
+            if (!candidato.id().equals(entrada.id())) {
+                lista.add(candidato.id());
+            }
+        }
+    }
+
+    /**
+     * Datos de un producto activo necesarios para relacionarlo.
+     */
+    private record Entrada(Long id, Categoria categoria, String franquicia, String tipoPrenda,
+                           LocalDateTime fechaCreacion) {
+    }
+}
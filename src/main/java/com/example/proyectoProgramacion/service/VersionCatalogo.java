@@ -0,0 +1,124 @@
+package com.example.proyectoProgramacion.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Validadores HTTP ({@code ETag} y {@code Last-Modified}) del catálogo para las peticiones GET
+ * condicionales.
+ * <p>El catálogo tiene una versión global en memoria que avanza después de confirmar cualquier
+ * cambio en productos, incluidas las reservas y reposiciones de stock. Los listados la usan como
+ * ETag, así que responder 304 no requiere consultar la base de datos. Cada producto usa un ETag
+ * fuerte con su ID y su columna {@code version}; se recuerda el último servido y se olvida cuando
+ * el producto cambia. {@code Last-Modified} es siempre el instante del último cambio del catálogo,
+ * que acota también los cambios de stock que no actualizan {@code fechaActualizacion}.</p>
+ * <p>La versión global incluye el instante de arranque, de modo que tras un reinicio los clientes
+ * vuelven a descargar los listados una vez. Igual que los índices en memoria del catálogo, supone
+ * que todos los cambios pasan por esta instancia.</p>
+ */
+@Component
+public class VersionCatalogo {
+
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    // Segundos: la precisión de las fechas HTTP
+    private volatile long ultimaModificacion = System.currentTimeMillis() / 1000;
+
+    // ID de producto -> ETag de la última representación servida
+    private final ConcurrentHashMap<Long, String> productos = new ConcurrentHashMap<>();
+
+    /**
+     * @return Versión actual del catálogo; se lee antes de consultar los datos a servir
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * ETag de los listados del catálogo.
+     *
+     * @param variante Distingue representaciones que no dependen solo del catálogo (por ejemplo,
+     *                 el usuario en las páginas HTML); nula si no hay
+     * @return ETag fuerte, entre comillas
+     */
+    public String etagCatalogo(String variante) {
+        String etag = "c" + arranque + "-" + version.get();
+        if (variante != null) {
+            etag += "-" + Integer.toHexString(variante.hashCode());
+        }
+        return "\"" + etag + "\"";
+    }
+
+    /**
+     * Instante del último cambio en el catálogo, para {@code Last-Modified}.
+     * <p>Las fechas HTTP tienen precisión de segundos: mientras el segundo del último cambio no ha
+     * terminado puede llegar otro cambio con la misma fecha, y un cliente que solo envíe
+     * {@code If-Modified-Since} recibiría un 304 erróneo. En ese caso no se publica la fecha y
+     * solo valida el ETag.</p>
+     *
+     * @return Milisegundos del último cambio, o -1 si aún no se puede publicar
+     */
+    public long ultimaModificacion() {
+        long segundos = ultimaModificacion;
+        return segundos < System.currentTimeMillis() / 1000 ? segundos * 1000 : -1;
+    }
+
+    /**
+     * ETag ya conocido de un producto, vigente mientras no cambie.
+     *
+     * @param id ID del producto
+     * @return ETag del último cuerpo servido; vacío si no se conoce
+     */
+    public Optional<String> etagProducto(Long id) {
+        return Optional.ofNullable(productos.get(id));
+    }
+
+    /**
+     * Calcula y recuerda el ETag de un producto recién leído.
+     *
+     * @param id ID del producto
+     * @param versionLeida Versión del catálogo leída con {@link #version()} antes de consultar el producto
+     * @param versionProducto Columna {@code version} del producto
+     * @return ETag fuerte, entre comillas
+     */
+    public String registrarProducto(Long id, long versionLeida, Long versionProducto) {
+        String etag = "\"p" + id + "-" + versionProducto + "\"";
+        productos.put(id, etag);
+        // Si algo cambió mientras se leía, lo recordado puede ser anterior al cambio
+        if (version.get() != versionLeida) {
+            productos.remove(id);
+        }
+        return etag;
+    }
+
+    /**
+     * Registra cambios en productos. Si hay una transacción activa se aplican al confirmarla,
+     * para no anunciar datos que todavía no se pueden leer.
+     *
+     * @param ids IDs de los productos modificados
+     */
+    public void registrarCambio(Collection<Long> ids) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    aplicarCambio(ids);
+                }
+            });
+        } else {
+            aplicarCambio(ids);
+        }
+    }
+
+    private void aplicarCambio(Collection<Long> ids) {
+        ultimaModificacion = System.currentTimeMillis() / 1000;
+        version.incrementAndGet();
+        ids.forEach(productos::remove);
+    }
+}
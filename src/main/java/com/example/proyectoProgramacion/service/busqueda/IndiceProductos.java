@@ -0,0 +1,194 @@
+package com.example.proyectoProgramacion.service.busqueda;
+
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Base de los índices de productos en memoria ({@link ProductoSearchIndex} y
+ * {@link ProductoAtributosIndex}).
+ * <p>Se encarga de la reconstrucción completa desde la base de datos, por lotes y sin bloquear las
+ * lecturas: el estado nuevo se carga aparte y se publica con el bloqueo de escritura. Los cambios
+ * incrementales que llegan mientras tanto se aplican sobre el estado anterior y se guardan para
+ * repetirlos sobre el nuevo al publicarlo. También traduce el {@link Sort} de la petición a un
+ * comparador sobre las filas indexadas.</p>
+ *
+ * @param <E> Estado completo del índice que se construye en cada reconstrucción
+ */
+@Slf4j
+abstract class IndiceProductos<E> {
+
+    private static final int TAMANO_LOTE_CARGA = 500;
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final ProductoRepository productoRepository;
+    private final String descripcion;
+
+    private volatile boolean listo;
+    // Cambios recibidos durante una reconstrucción, que se vuelven a aplicar al terminar
+    private List<Runnable> cambiosPendientes;
+
+    protected IndiceProductos(ProductoRepository productoRepository, String descripcion) {
+        this.productoRepository = productoRepository;
+        this.descripcion = descripcion;
+    }
+
+    /**
+     * @return true cuando el índice terminó su carga inicial y puede responder consultas
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Construye el índice completo a partir de la base de datos, por lotes.
+     */
+    public void reconstruir() {
+        synchronized (this) {
+            cambiosPendientes = new ArrayList<>();
+        }
+
+        E nuevoEstado = crearEstado();
+        try {
+            Page<Producto> lote;
+            int pagina = 0;
+            do {
+                lote = productoRepository.findAll(PageRequest.of(pagina++, TAMANO_LOTE_CARGA, Sort.by("id")));
+                for (Producto producto : lote) {
+                    cargar(nuevoEstado, producto);
+                }
+            } while (lote.hasNext());
+        } catch (RuntimeException e) {
+            log.error("No se pudo construir el {}", descripcion, e);
+            synchronized (this) {
+                cambiosPendientes = null;
+            }
+            return;
+        }
+
+        List<Runnable> pendientes;
+        lock.writeLock().lock();
+        try {
+            publicar(nuevoEstado);
+            synchronized (this) {
+                pendientes = cambiosPendientes;
+                cambiosPendientes = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        pendientes.forEach(Runnable::run);
+
+        listo = true;
+        log.info("{} construido: {}", descripcion, resumen(nuevoEstado));
+    }
+
+    /**
+     * Aplica un cambio incremental con el bloqueo de escritura. Si hay una reconstrucción en curso,
+     * el cambio se repite al publicar el estado nuevo, que pudo cargarse antes de él.
+     *
+     * @param cambio Cambio sobre el estado actual; debe poder repetirse
+     */
+    protected void aplicar(Runnable cambio) {
+        Runnable conBloqueo = () -> {
+            lock.writeLock().lock();
+            try {
+                cambio.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        synchronized (this) {
+            if (cambiosPendientes != null) {
+                cambiosPendientes.add(conBloqueo);
+            }
+        }
+        conBloqueo.run();
+    }
+
+    /**
+     * @return Estado vacío en el que cargar una reconstrucción
+     */
+    protected abstract E crearEstado();
+
+    /**
+     * Añade un producto leído de la base de datos al estado en construcción.
+     */
+    protected abstract void cargar(E estado, Producto producto);
+
+    /**
+     * Sustituye el estado actual por el reconstruido; se llama con el bloqueo de escritura.
+     */
+    protected abstract void publicar(E estado);
+
+    /**
+     * @return Descripción del tamaño del estado para el log
+     */
+    protected abstract String resumen(E estado);
+
+    /**
+     * Comparador para el orden solicitado, con las propiedades que admiten los índices (nombre,
+     * precio, fechaCreacion e id); las demás se ignoran.
+     *
+     * @param sort Orden solicitado
+     * @return Comparador, o vacío si el orden no tiene ninguna propiedad conocida
+     */
+    protected static <T extends FilaOrdenable> Optional<Comparator<T>> comparador(Sort sort) {
+        Comparator<T> resultado = null;
+        for (Sort.Order orden : sort) {
+            Comparator<T> campo = switch (orden.getProperty()) {
+                case "nombre" -> Comparator.comparing(T::nombre,
+                        Comparator.nullsLast(Comparator.<String>naturalOrder()));
+                case "precio" -> Comparator.comparingLong(T::precio);
+                case "fechaCreacion" -> Comparator.comparing(T::fechaCreacion,
+                        Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()));
+                case "id" -> Comparator.comparing(T::id);
+                default -> null;
+            };
+            if (campo == null) {
+                continue;
+            }
+            if (orden.isDescending()) {
+                campo = campo.reversed();
+            }
+            resultado = resultado == null ? campo : resultado.thenComparing(campo);
+        }
+        return Optional.ofNullable(resultado);
+    }
+
+    /**
+     * Precio en céntimos; los precios tienen dos decimales, así que con HALF_UP es exacto.
+     */
+    protected static long centimos(BigDecimal precio, RoundingMode redondeo) {
+        return precio.movePointRight(2).setScale(0, redondeo).longValue();
+    }
+
+    /**
+     * Campos por los que se pueden ordenar las filas de un índice.
+     */
+    protected interface FilaOrdenable {
+
+        Long id();
+
+        String nombre();
+
+        /** Precio en céntimos. */
+        long precio();
+
+        LocalDateTime fechaCreacion();
+    }
+}
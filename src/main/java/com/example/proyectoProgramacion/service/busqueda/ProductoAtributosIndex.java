@@ -0,0 +1,394 @@
+package com.example.proyectoProgramacion.service.busqueda;
+
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Índice de atributos en memoria para filtrar el catálogo activo con operaciones de bits.
+ * <p>Cada producto activo ocupa una posición densa, reutilizada al eliminarlo. Por cada valor de
+ * categoría, tipo de prenda, franquicia, talla, color y material hay un {@link BitSet} con las
+ * posiciones que lo tienen, y otro con los destacados; el precio se guarda como columna ordenada,
+ * así que un rango es una búsqueda binaria. Combinar filtros es un AND de bitmaps y cada recuento
+ * de faceta un AND más {@code cardinality()}, sin consultar la base de datos. Cada fila guarda
+ * también nombre, precio y fecha de creación, de modo que las coincidencias se ordenan en memoria y
+ * solo se leen de la base de datos los productos de la página.</p>
+ * <p>Como {@link ProductoSearchIndex}, se construye al arrancar y se actualiza de forma incremental
+ * desde {@code ProductoServiceImpl}.</p>
+ */
+@Component
+public class ProductoAtributosIndex extends IndiceProductos<ProductoAtributosIndex.Tabla> {
+
+    // Orden sin propiedades conocidas ni texto, igual que ProductoRepository.filtrarCatalogo
+    private static final Comparator<Fila> POR_NOMBRE = Comparator
+            .comparing(Fila::nombre, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Fila::id);
+
+    // Facetas indexadas, en el orden en que se devuelven sus recuentos
+    private static final List<Atributo> ATRIBUTOS = List.of(
+            new Atributo("categoria",
+                    p -> p.getCategoria() != null ? p.getCategoria().name() : null,
+                    f -> f.getCategoria() != null ? f.getCategoria().name() : null),
+            new Atributo("tipoPrenda", Producto::getTipoPrenda, FiltroCatalogoDTO::getTipoPrenda),
+            new Atributo("franquicia", Producto::getFranquicia, FiltroCatalogoDTO::getFranquicia),
+            new Atributo("talla", Producto::getTalla, FiltroCatalogoDTO::getTalla),
+            new Atributo("color", Producto::getColor, FiltroCatalogoDTO::getColor),
+            new Atributo("material", Producto::getMaterial, FiltroCatalogoDTO::getMaterial));
+
+    private Tabla tabla = new Tabla();
+
+    public ProductoAtributosIndex(ProductoRepository productoRepository) {
+        super(productoRepository, "índice de atributos de productos");
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        super.reconstruir();
+    }
+
+    /**
+     * Añade o reemplaza un producto en el índice; los inactivos se quitan.
+     *
+     * @param producto Producto a indexar
+     */
+    public void indexar(Producto producto) {
+        Fila fila = producto.isActivo() ? crearFila(producto) : null;
+        Long id = producto.getId();
+        aplicar(() -> {
+            tabla.quitar(id);
+            if (fila != null) {
+                tabla.agregar(fila);
+            }
+        });
+    }
+
+    /**
+     * Elimina un producto del índice.
+     *
+     * @param id ID del producto
+     */
+    public void eliminar(Long id) {
+        aplicar(() -> tabla.quitar(id));
+    }
+
+    /**
+     * Filtra el catálogo activo y calcula los recuentos por faceta. Los recuentos de una faceta
+     * aplican todos los filtros salvo el suyo, igual que {@code ProductoRepository.filtrarCatalogo}.
+     *
+     * @param filtro Filtros a aplicar
+     * @param idsPorTexto IDs que coinciden con el texto según {@link ProductoSearchIndex}, ordenados
+     *                    por relevancia; nulo si el filtro no tiene texto
+     * @param sort Orden solicitado (nombre, precio, fechaCreacion o id, con el ID como desempate);
+     *             sin propiedades conocidas se ordena por relevancia si hay texto o por nombre
+     * @return IDs que cumplen todos los filtros, en el orden solicitado, y recuentos por faceta;
+     *         vacío si el índice no está listo o el filtro incluye productos inactivos o texto sin resolver
+     */
+    public Optional<Resultado> filtrar(FiltroCatalogoDTO filtro, List<Long> idsPorTexto, Sort sort) {
+        if (!estaListo() || !Boolean.TRUE.equals(filtro.getActivo())
+                || (StringUtils.hasText(filtro.getTexto()) && idsPorTexto == null)) {
+            return Optional.empty();
+        }
+
+        Map<String, Map<String, Long>> facetas = new LinkedHashMap<>();
+        List<Fila> filas;
+        lock.readLock().lock();
+        try {
+            Tabla actual = tabla;
+
+            // Filtros que no son facetas
+            BitSet base = (BitSet) actual.vivos.clone();
+            if (idsPorTexto != null) {
+                base.and(actual.posicionesDe(idsPorTexto));
+            }
+            if (filtro.getPrecioMin() != null || filtro.getPrecioMax() != null) {
+                base.and(actual.rangoDePrecio(filtro.getPrecioMin(), filtro.getPrecioMax()));
+            }
+            if (filtro.getDestacado() != null) {
+                if (filtro.getDestacado()) {
+                    base.and(actual.destacados);
+                } else {
+                    base.andNot(actual.destacados);
+                }
+            }
+
+            // Bitmap de cada faceta seleccionada; un valor que no está en el índice no coincide con nada
+            Map<Atributo, BitSet> seleccion = new LinkedHashMap<>();
+            for (Atributo atributo : ATRIBUTOS) {
+                String valor = atributo.deFiltro().apply(filtro);
+                if (StringUtils.hasText(valor)) {
+                    seleccion.put(atributo, actual.bitmaps.get(atributo.nombre())
+                            .getOrDefault(valor.trim(), new BitSet()));
+                }
+            }
+
+            BitSet coincidencias = (BitSet) base.clone();
+            seleccion.values().forEach(coincidencias::and);
+
+            // Los dos BitSet de trabajo se reutilizan para no reservar memoria por cada valor
+            BitSet resto = new BitSet();
+            BitSet interseccion = new BitSet();
+            for (Atributo atributo : ATRIBUTOS) {
+                resto.clear();
+                resto.or(base);
+                seleccion.forEach((otro, bits) -> {
+                    if (otro != atributo) {
+                        resto.and(bits);
+                    }
+                });
+
+                List<Map.Entry<String, Long>> recuentos = new ArrayList<>();
+                actual.bitmaps.get(atributo.nombre()).forEach((valor, bits) -> {
+                    interseccion.clear();
+                    interseccion.or(resto);
+                    interseccion.and(bits);
+                    int cantidad = interseccion.cardinality();
+                    if (cantidad > 0) {
+                        recuentos.add(Map.entry(valor, (long) cantidad));
+                    }
+                });
+                recuentos.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()));
+
+                Map<String, Long> porValor = new LinkedHashMap<>();
+                recuentos.forEach(recuento -> porValor.put(recuento.getKey(), recuento.getValue()));
+                facetas.put(atributo.nombre(), porValor);
+            }
+
+            filas = new ArrayList<>(coincidencias.cardinality());
+            if (idsPorTexto != null) {
+                // En orden de relevancia
+                for (Long id : idsPorTexto) {
+                    Integer posicion = actual.posiciones.get(id);
+                    if (posicion != null && coincidencias.get(posicion)) {
+                        filas.add(actual.filas.get(posicion));
+                    }
+                }
+            } else {
+                coincidencias.stream().forEach(posicion -> filas.add(actual.filas.get(posicion)));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Las filas son inmutables: se ordenan fuera del bloqueo
+        Optional<Comparator<Fila>> orden = comparador(sort);
+        if (orden.isPresent()) {
+            filas.sort(orden.get().thenComparing(Fila::id));
+        } else if (idsPorTexto == null) {
+            filas.sort(POR_NOMBRE);
+        }
+        return Optional.of(new Resultado(filas.stream().map(Fila::id).toList(), facetas));
+    }
+
+    @Override
+    protected Tabla crearEstado() {
+        return new Tabla();
+    }
+
+    @Override
+    protected void cargar(Tabla estado, Producto producto) {
+        if (producto.isActivo()) {
+            estado.agregar(crearFila(producto));
+        }
+    }
+
+    @Override
+    protected void publicar(Tabla estado) {
+        tabla = estado;
+    }
+
+    @Override
+    protected String resumen(Tabla estado) {
+        return estado.posiciones.size() + " productos activos";
+    }
+
+    private static Fila crearFila(Producto producto) {
+        String[] valores = new String[ATRIBUTOS.size()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = ATRIBUTOS.get(i).deProducto().apply(producto);
+        }
+        return new Fila(producto.getId(), producto.getNombre(), centimos(producto.getPrecio(), RoundingMode.HALF_UP),
+                producto.getFechaCreacion(), producto.isDestacado(), valores);
+    }
+
+    /**
+     * Resultado de un filtro en memoria.
+     *
+     * @param ids IDs de los productos que cumplen todos los filtros
+     * @param facetas faceta -> valor -> número de productos
+     */
+    public record Resultado(List<Long> ids, Map<String, Map<String, Long>> facetas) {
+    }
+
+    private record Atributo(String nombre, Function<Producto, String> deProducto,
+                            Function<FiltroCatalogoDTO, String> deFiltro) {
+    }
+
+    /**
+     * Atributos indexados de un producto y sus campos de orden; {@code valores} sigue el orden de
+     * {@link #ATRIBUTOS}.
+     */
+    private record Fila(Long id, String nombre, long precio, LocalDateTime fechaCreacion, boolean destacado,
+                        String[] valores) implements FilaOrdenable {
+    }
+
+    /**
+     * Estado del índice. Solo se modifica con el bloqueo de escritura.
+     */
+    static final class Tabla {
+
+        private final Map<Long, Integer> posiciones = new HashMap<>();
+        // posición -> fila; nula si la posición está libre
+        private final List<Fila> filas = new ArrayList<>();
+        private final Deque<Integer> libres = new ArrayDeque<>();
+
+        private final BitSet vivos = new BitSet();
+        private final BitSet destacados = new BitSet();
+        // atributo -> valor -> posiciones con ese valor
+        private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+
+        // Columna de precios ordenada (en céntimos) con la posición de cada uno
+        private long[] precios = new long[16];
+        private int[] posicionesPorPrecio = new int[16];
+        private int tamano;
+
+        private Tabla() {
+            ATRIBUTOS.forEach(atributo -> bitmaps.put(atributo.nombre(), new HashMap<>()));
+        }
+
+        private void agregar(Fila fila) {
+            int posicion;
+            if (libres.isEmpty()) {
+                posicion = filas.size();
+                filas.add(fila);
+            } else {
+                posicion = libres.pop();
+                filas.set(posicion, fila);
+            }
+            posiciones.put(fila.id(), posicion);
+            vivos.set(posicion);
+            if (fila.destacado()) {
+                destacados.set(posicion);
+            }
+            for (int i = 0; i < ATRIBUTOS.size(); i++) {
+                String valor = fila.valores()[i];
+                if (valor != null) {
+                    bitmaps.get(ATRIBUTOS.get(i).nombre()).computeIfAbsent(valor, v -> new BitSet()).set(posicion);
+                }
+            }
+
+            if (tamano == precios.length) {
+                precios = Arrays.copyOf(precios, tamano * 2);
+                posicionesPorPrecio = Arrays.copyOf(posicionesPorPrecio, tamano * 2);
+            }
+            int indice = primeroMayorQue(fila.precio());
+            System.arraycopy(precios, indice, precios, indice + 1, tamano - indice);
+            System.arraycopy(posicionesPorPrecio, indice, posicionesPorPrecio, indice + 1, tamano - indice);
+            precios[indice] = fila.precio();
+            posicionesPorPrecio[indice] = posicion;
+            tamano++;
+        }
+
+        private void quitar(Long id) {
+            Integer posicion = posiciones.remove(id);
+            if (posicion == null) {
+                return;
+            }
+            Fila fila = filas.set(posicion, null);
+            libres.push(posicion);
+            vivos.clear(posicion);
+            destacados.clear(posicion);
+            for (int i = 0; i < ATRIBUTOS.size(); i++) {
+                String valor = fila.valores()[i];
+                if (valor != null) {
+                    Map<String, BitSet> porValor = bitmaps.get(ATRIBUTOS.get(i).nombre());
+                    BitSet bits = porValor.get(valor);
+                    bits.clear(posicion);
+                    if (bits.isEmpty()) {
+                        porValor.remove(valor);
+                    }
+                }
+            }
+
+            for (int indice = primeroMayorOIgualQue(fila.precio()); indice < tamano; indice++) {
+                if (posicionesPorPrecio[indice] == posicion) {
+                    System.arraycopy(precios, indice + 1, precios, indice, tamano - indice - 1);
+                    System.arraycopy(posicionesPorPrecio, indice + 1, posicionesPorPrecio, indice, tamano - indice - 1);
+                    tamano--;
+                    break;
+                }
+            }
+        }
+
+        private BitSet posicionesDe(List<Long> ids) {
+            BitSet bits = new BitSet();
+            for (Long id : ids) {
+                Integer posicion = posiciones.get(id);
+                if (posicion != null) {
+                    bits.set(posicion);
+                }
+            }
+            return bits;
+        }
+
+        private BitSet rangoDePrecio(BigDecimal minimo, BigDecimal maximo) {
+            int desde = minimo != null ? primeroMayorOIgualQue(centimos(minimo, RoundingMode.CEILING)) : 0;
+            int hasta = maximo != null ? primeroMayorQue(centimos(maximo, RoundingMode.FLOOR)) : tamano;
+            BitSet bits = new BitSet();
+            for (int indice = desde; indice < hasta; indice++) {
+                bits.set(posicionesPorPrecio[indice]);
+            }
+            return bits;
+        }
+
+        private int primeroMayorOIgualQue(long precio) {
+            int bajo = 0;
+            int alto = tamano;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (precios[medio] < precio) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        private int primeroMayorQue(long precio) {
+            int bajo = 0;
+            int alto = tamano;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (precios[medio] <= precio) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.proyectoProgramacion.service.busqueda;
+
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import com.example.proyectoProgramacion.util.NormalizadorTexto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Índice invertido en memoria para la búsqueda de productos.
+ * <p>Indexa nombre, descripción, franquicia, tipo de prenda, color y material con pesos por campo.
+ * Las consultas exigen que todos sus términos coincidan (por término exacto o por prefijo) y
+ * ordenan por relevancia tipo TF-IDF, así que el coste depende del número de coincidencias y no
+ * del tamaño del catálogo.</p>
+ * <p>Se construye al arrancar y se actualiza de forma incremental desde {@code ProductoServiceImpl}.
+ * Mientras no está listo, el servicio recurre a la consulta en base de datos.</p>
+ */
+@Component
+public class ProductoSearchIndex extends IndiceProductos<ProductoSearchIndex.Estado> {
+
+    private static final float PESO_NOMBRE = 3.0f;
+    private static final float PESO_FRANQUICIA = 2.0f;
+    private static final float PESO_TIPO_PRENDA = 2.0f;
+    private static final float PESO_COLOR = 1.5f;
+    private static final float PESO_MATERIAL = 1.5f;
+    private static final float PESO_DESCRIPCION = 1.0f;
+
+    // Las coincidencias por prefijo ("cami" -> "camiseta") puntúan menos que las exactas
+    private static final float FACTOR_PREFIJO = 0.5f;
+    private static final int LONGITUD_MINIMA_PREFIJO = 3;
+
+    // término -> (ID de producto -> peso del término en el producto)
+    private TreeMap<String, Map<Long, Float>> indice = new TreeMap<>();
+    private Map<Long, Documento> documentos = new HashMap<>();
+
+    public ProductoSearchIndex(ProductoRepository productoRepository) {
+        super(productoRepository, "índice de búsqueda de productos");
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        super.reconstruir();
+    }
+
+    /**
+     * Añade o reemplaza un producto en el índice.
+     *
+     * @param producto Producto a indexar
+     */
+    public void indexar(Producto producto) {
+        Documento documento = crearDocumento(producto);
+        aplicar(() -> {
+            quitar(indice, documentos, documento.id());
+            agregar(indice, documentos, documento);
+        });
+    }
+
+    /**
+     * Elimina un producto del índice.
+     *
+     * @param id ID del producto
+     */
+    public void eliminar(Long id) {
+        aplicar(() -> quitar(indice, documentos, id));
+    }
+
+    /**
+     * Busca productos que contengan todos los términos de la consulta.
+     *
+     * @param consulta Texto introducido por el usuario
+     * @param sort Orden solicitado; si no tiene propiedades conocidas (nombre, precio,
+     *             fechaCreacion, id) se ordena por relevancia
+     * @return IDs de los productos que coinciden, en el orden solicitado
+     */
+    public List<Long> buscar(String consulta, Sort sort) {
+        List<String> terminos = NormalizadorTexto.tokenizar(consulta).stream().distinct().toList();
+        if (terminos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Float> puntuaciones = null;
+        Map<Long, Documento> candidatos = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int totalDocumentos = Math.max(documentos.size(), 1);
+            for (String termino : terminos) {
+                Map<Long, Float> coincidencias = puntuarTermino(termino, totalDocumentos);
+                if (puntuaciones == null) {
+                    puntuaciones = coincidencias;
+                } else {
+                    // Intersección: el producto debe coincidir con todos los términos
+                    puntuaciones.keySet().retainAll(coincidencias.keySet());
+                    puntuaciones.replaceAll((id, puntuacion) -> puntuacion + coincidencias.get(id));
+                }
+                if (puntuaciones.isEmpty()) {
+                    return List.of();
+                }
+            }
+            puntuaciones.keySet().forEach(id -> candidatos.put(id, documentos.get(id)));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Map<Long, Float> relevancia = puntuaciones;
+        Comparator<Documento> porRelevancia = Comparator
+                .comparing((Documento d) -> relevancia.get(d.id()), Comparator.reverseOrder())
+                .thenComparing(Documento::id);
+
+        Optional<Comparator<Documento>> orden = comparador(sort);
+        return candidatos.values().stream()
+                .sorted(orden.map(c -> c.thenComparing(porRelevancia)).orElse(porRelevancia))
+                .map(Documento::id)
+                .toList();
+    }
+
+    private Map<Long, Float> puntuarTermino(String termino, int totalDocumentos) {
+        Map<Long, Float> puntuaciones = new HashMap<>();
+
+        Map<Long, Float> exactas = indice.get(termino);
+        if (exactas != null) {
+            float idf = idf(exactas.size(), totalDocumentos);
+            exactas.forEach((id, peso) -> puntuaciones.put(id, peso * idf));
+        }
+
+        if (termino.length() >= LONGITUD_MINIMA_PREFIJO) {
+            NavigableMap<String, Map<Long, Float>> porPrefijo =
+                    indice.subMap(termino, false, termino + Character.MAX_VALUE, false);
+            for (Map<Long, Float> coincidencias : porPrefijo.values()) {
+                float idf = idf(coincidencias.size(), totalDocumentos) * FACTOR_PREFIJO;
+                coincidencias.forEach((id, peso) -> puntuaciones.merge(id, peso * idf, Math::max));
+            }
+        }
+        return puntuaciones;
+    }
+
+    private static float idf(int frecuenciaDocumental, int totalDocumentos) {
+        return (float) Math.log(1.0 + (double) totalDocumentos / frecuenciaDocumental);
+    }
+
+    @Override
+    protected Estado crearEstado() {
+        return new Estado(new TreeMap<>(), new HashMap<>());
+    }
+
+    @Override
+    protected void cargar(Estado estado, Producto producto) {
+        agregar(estado.indice(), estado.documentos(), crearDocumento(producto));
+    }
+
+    @Override
+    protected void publicar(Estado estado) {
+        indice = estado.indice();
+        documentos = estado.documentos();
+    }
+
+    @Override
+    protected String resumen(Estado estado) {
+        return estado.documentos().size() + " productos, " + estado.indice().size() + " términos";
+    }
+
+    private static void agregar(TreeMap<String, Map<Long, Float>> indice,
+                                Map<Long, Documento> documentos, Documento documento) {
+        documentos.put(documento.id(), documento);
+        documento.pesos().forEach((termino, peso) ->
+                indice.computeIfAbsent(termino, t -> new HashMap<>()).put(documento.id(), peso));
+    }
+
+    private static void quitar(TreeMap<String, Map<Long, Float>> indice,
+                               Map<Long, Documento> documentos, Long id) {
+        Documento anterior = documentos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        for (String termino : anterior.pesos().keySet()) {
+            Map<Long, Float> coincidencias = indice.get(termino);
+            if (coincidencias != null) {
+                coincidencias.remove(id);
+                if (coincidencias.isEmpty()) {
+                    indice.remove(termino);
+                }
+            }
+        }
+    }
+
+    private static Documento crearDocumento(Producto producto) {
+        Map<String, Float> pesos = new LinkedHashMap<>();
+        sumarPesos(pesos, producto.getNombre(), PESO_NOMBRE);
+        sumarPesos(pesos, producto.getFranquicia(), PESO_FRANQUICIA);
+        sumarPesos(pesos, producto.getTipoPrenda(), PESO_TIPO_PRENDA);
+        sumarPesos(pesos, producto.getColor(), PESO_COLOR);
+        sumarPesos(pesos, producto.getMaterial(), PESO_MATERIAL);
+        sumarPesos(pesos, producto.getDescripcion(), PESO_DESCRIPCION);
+
+        return new Documento(producto.getId(), NormalizadorTexto.normalizar(producto.getNombre()),
+                centimos(producto.getPrecio(), RoundingMode.HALF_UP), producto.getFechaCreacion(), pesos);
+    }
+
+    private static void sumarPesos(Map<String, Float> pesos, String texto, float peso) {
+        for (String termino : NormalizadorTexto.tokenizar(texto)) {
+            pesos.merge(termino, peso, Float::sum);
+        }
+    }
+
+    /**
+     * Datos mínimos de un producto indexado: sus términos con peso y los campos por los que se puede ordenar.
+     */
+    private record Documento(Long id, String nombre, long precio, LocalDateTime fechaCreacion,
+                             Map<String, Float> pesos) implements FilaOrdenable {
+    }
+
+    /**
+     * Estado completo del índice, construido aparte en cada reconstrucción.
+     */
+    record Estado(TreeMap<String, Map<Long, Float>> indice, Map<Long, Documento> documentos) {
+    }
+}
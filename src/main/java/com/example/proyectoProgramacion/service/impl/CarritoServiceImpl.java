@@ -1,35 +1,48 @@
 package com.example.proyectoProgramacion.service.impl;
 
+import com.example.proyectoProgramacion.config.ReintentarEnConflicto;
 import com.example.proyectoProgramacion.util.AppConstants;
+import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
+import com.example.proyectoProgramacion.mapper.CarritoMapper;
 import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
 import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.OperacionCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.ResumenCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
 import com.example.proyectoProgramacion.model.entity.Carrito;
 import com.example.proyectoProgramacion.model.entity.ItemCarrito;
 import com.example.proyectoProgramacion.model.entity.Producto;
-import com.example.proyectoProgramacion.model.entity.Usuario;
+import com.example.proyectoProgramacion.model.enums.TipoOperacionCarrito;
 import com.example.proyectoProgramacion.repository.CarritoRepository;
 import com.example.proyectoProgramacion.repository.ItemCarritoRepository;
+import com.example.proyectoProgramacion.repository.ItemCarritoRepositoryCustom;
 import com.example.proyectoProgramacion.repository.ProductoRepository;
 import com.example.proyectoProgramacion.repository.UsuarioRepository;
-import com.example.proyectoProgramacion.service.SessionManager;
+import com.example.proyectoProgramacion.security.UsuarioIdResolver;
+import com.example.proyectoProgramacion.service.CarritoInvitadoStore;
 import com.example.proyectoProgramacion.service.interfaces.CarritoService;
+import com.example.proyectoProgramacion.service.interfaces.ProductoService;
 import com.example.proyectoProgramacion.validation.GruposValidacionCarrito;
-import org.modelmapper.ModelMapper;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,173 +54,171 @@ public class CarritoServiceImpl implements CarritoService {
     private static final String MSG_STOCK_INSUFICIENTE = "Stock insuficiente para el producto ID: %d. Disponible: %d, Solicitado: %d";
     private static final String MSG_ITEM_NO_ENCONTRADO = "No se encontró el ítem con ID: %d en el carrito";
     private static final String MSG_ERROR_ACCESO_DATOS = "Error al acceder a los datos";
+    // Clave de caché por ID para los métodos que reciben el nombre de usuario
+    private static final String CLAVE_POR_NOMBRE = "@usuarioIdResolver.resolver(#nombreUsuario)";
 
     private final CarritoRepository carritoRepository;
     private final ItemCarritoRepository itemCarritoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
-    private final SessionManager sessionManager;
-    private final ModelMapper modelMapper;
+    private final CarritoInvitadoStore carritoInvitadoStore;
+    private final ProductoService productoService;
+    private final CarritoMapper carritoMapper;
+    private final UsuarioIdResolver usuarioIdResolver;
+    private final EntityManager entityManager;
 
     public CarritoServiceImpl(
             CarritoRepository carritoRepository,
             ItemCarritoRepository itemCarritoRepository,
             UsuarioRepository usuarioRepository,
             ProductoRepository productoRepository,
-            SessionManager sessionManager,
-            ModelMapper modelMapper
+            CarritoInvitadoStore carritoInvitadoStore,
+            ProductoService productoService,
+            CarritoMapper carritoMapper,
+            UsuarioIdResolver usuarioIdResolver,
+            EntityManager entityManager
     ) {
         this.carritoRepository = carritoRepository;
         this.itemCarritoRepository = itemCarritoRepository;
         this.usuarioRepository = usuarioRepository;
         this.productoRepository = productoRepository;
-        this.sessionManager = sessionManager;
-        this.modelMapper = modelMapper;
+        this.carritoInvitadoStore = carritoInvitadoStore;
+        this.productoService = productoService;
+        this.carritoMapper = carritoMapper;
+        this.usuarioIdResolver = usuarioIdResolver;
+        this.entityManager = entityManager;
     }
 
     @Override
-    @CacheEvict(
-            cacheNames = {"carritoUsuario", "carritoSesion"},
-            key = "#nombreUsuario"
-    )
-    @Retryable(
-            value = { Exception.class },
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 100)
-    )
-    @Transactional(
-            isolation = Isolation.SERIALIZABLE,
-            timeout = 10,
-            rollbackFor = {Exception.class}
-    )
+    @CacheEvict(cacheNames = "carritoUsuario", key = CLAVE_POR_NOMBRE)
+    @ReintentarEnConflicto
+    @Transactional(timeout = 10, rollbackFor = {Exception.class})
     public CarritoDTO fusionarCarritoSesionConUsuario(@NotBlank String nombreUsuario) {
-        // Obtener carrito de sesión
-        CarritoDTO carritoSesion = obtenerCarritoSesion();
-        if (carritoSesion == null || carritoSesion.getItems().isEmpty()) {
-            return obtenerCarritoPorUsuario(nombreUsuario);
+        Long usuarioId = usuarioIdResolver.resolver(nombreUsuario);
+
+        // Obtener las líneas del carrito de sesión
+        Map<Long, Integer> lineasSesion = carritoInvitadoStore.obtenerLineas();
+        if (lineasSesion.isEmpty()) {
+            return obtenerCarritoPorUsuario(usuarioId);
         }
 
-        // Obtener carrito del usuario
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Carrito carritoUsuario = carritoRepository.findByUsuarioId(usuario.getId())
-                .orElseGet(() -> {
-                    Carrito nuevoCarrito = new Carrito();
-                    nuevoCarrito.setUsuario(usuario);
-                    return carritoRepository.save(nuevoCarrito);
-                });
-
-        // Fusionar items del carrito de sesión al carrito del usuario
-        for (ItemCarritoDTO itemDTO : carritoSesion.getItems()) {
-            Producto producto = productoRepository.findById(itemDTO.getProductoId())
-                    .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-
-            // Verificar si el producto ya existe en el carrito del usuario
-            Optional<ItemCarrito> itemExistente = carritoUsuario.getItems().stream()
-                    .filter(item -> item.getProducto().getId().equals(itemDTO.getProductoId()))
-                    .findFirst();
-
-            if (itemExistente.isPresent()) {
-                // Actualizar cantidad
-                ItemCarrito item = itemExistente.get();
-                item.setCantidad(item.getCantidad() + itemDTO.getCantidad());
-                itemCarritoRepository.save(item);
-            } else {
-                // Agregar nuevo item
-                ItemCarrito nuevoItem = new ItemCarrito();
-                nuevoItem.setCarrito(carritoUsuario);
-                nuevoItem.setProducto(producto);
-                nuevoItem.setCantidad(itemDTO.getCantidad());
-                carritoUsuario.getItems().add(nuevoItem);
-                itemCarritoRepository.save(nuevoItem);
+        Long carritoId = carritoRepository.findIdByUsuarioId(usuarioId)
+                .orElseGet(() -> crearCarrito(usuarioId).getId());
+
+        // Una sola consulta para todos los productos; los que ya no existen se descartan
+        Map<Long, Producto> productos = productoRepository.findAllById(lineasSesion.keySet()).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        List<ItemCarritoRepositoryCustom.Linea> lineas = new ArrayList<>(lineasSesion.size());
+        lineasSesion.forEach((productoId, cantidad) -> {
+            Producto producto = productos.get(productoId);
+            if (producto != null) {
+                lineas.add(new ItemCarritoRepositoryCustom.Linea(productoId, cantidad, producto.getPrecio()));
             }
-        }
+        });
 
-        // Guardar carrito actualizado
-        carritoRepository.save(carritoUsuario);
+        // Un único lote de upserts que suma las cantidades a las líneas existentes o las crea;
+        // es atómico por fila, así que no hace falta aislamiento serializable. Va por JDBC: el
+        // carrito recién creado tiene que estar ya insertado
+        entityManager.flush();
+        itemCarritoRepository.sumarLineas(carritoId, lineas);
+        // El contexto de persistencia no ve los cambios hechos por JDBC; sin limpiarlo, la lectura
+        // final devolvería el carrito ya cargado con sus líneas anteriores
+        entityManager.clear();
 
         // Limpiar carrito de sesión
-        vaciarCarritoSesion();
+        carritoInvitadoStore.vaciar();
 
         // Devolver carrito fusionado
-        return convertirADTO(carritoUsuario);
+        return convertirADTO(carritoRepository.findConItemsByUsuarioId(usuarioId)
+                .orElseThrow(() -> new RuntimeException("Carrito no encontrado")));
     }
 
+    // Las variantes por nombre de usuario delegan en las variantes por ID; la caché del carrito
+    // se indexa siempre por ID para que ambas compartan las mismas entradas
+
     @Override
-    @Cacheable(cacheNames = "carritoUsuario", key = "#nombreUsuario", unless = "#result == null")
+    @Transactional
+    @Cacheable(cacheNames = "carritoUsuario", key = CLAVE_POR_NOMBRE, unless = "#result == null")
     public CarritoDTO obtenerCarritoPorUsuario(@NotBlank String nombreUsuario) {
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
-                .orElseGet(() -> {
-                    Carrito nuevoCarrito = new Carrito();
-                    nuevoCarrito.setUsuario(usuario);
-                    return carritoRepository.save(nuevoCarrito);
-                });
-
-        return convertirADTO(carrito);
+        return obtenerCarritoPorUsuario(usuarioIdResolver.resolver(nombreUsuario));
     }
 
     @Override
-    @CacheEvict(cacheNames = "carritoUsuario", key = "#nombreUsuario")
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = CLAVE_POR_NOMBRE)
     @Validated(GruposValidacionCarrito.AlAgregar.class)
-    public CarritoDTO agregarProductoAlCarrito(@NotBlank String nombreUsuario, @NotNull @Valid ItemCarritoDTO itemDTO) {
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+    public ResumenCarritoDTO agregarProductoAlCarrito(@NotBlank String nombreUsuario, @NotNull @Valid ItemCarritoDTO itemDTO) {
+        return agregarProductoAlCarrito(usuarioIdResolver.resolver(nombreUsuario), itemDTO);
+    }
 
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
-                .orElseGet(() -> {
-                    Carrito nuevoCarrito = new Carrito();
-                    nuevoCarrito.setUsuario(usuario);
-                    return carritoRepository.save(nuevoCarrito);
-                });
+    @Override
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = CLAVE_POR_NOMBRE)
+    @Validated(GruposValidacionCarrito.AlActualizar.class)
+    public CarritoDTO actualizarCantidadItem(@NotBlank String nombreUsuario, @NotNull Long itemId, @NotNull Integer cantidad) {
+        return actualizarCantidadItem(usuarioIdResolver.resolver(nombreUsuario), itemId, cantidad);
+    }
 
-        Producto producto = productoRepository.findById(itemDTO.getProductoId())
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+    @Override
+    @Transactional(readOnly = true)
+    public boolean verificarPropiedadItem(@NotNull Long itemId, @NotBlank String nombreUsuario) {
+        return verificarPropiedadItem(itemId, usuarioIdResolver.resolver(nombreUsuario));
+    }
 
-        // Verificar stock
-        if (producto.getStock() < itemDTO.getCantidad()) {
-            throw new RuntimeException("Stock insuficiente");
-        }
+    @Override
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = CLAVE_POR_NOMBRE)
+    @Validated(GruposValidacionCarrito.AlEliminar.class)
+    public CarritoDTO eliminarItemDelCarrito(@NotBlank String nombreUsuario, @NotNull Long itemId) {
+        return eliminarItemDelCarrito(usuarioIdResolver.resolver(nombreUsuario), itemId);
+    }
 
-        // Verificar si el producto ya existe en el carrito
-        Optional<ItemCarrito> itemExistente = carrito.getItems().stream()
-                .filter(item -> item.getProducto().getId().equals(itemDTO.getProductoId()))
-                .findFirst();
-
-        if (itemExistente.isPresent()) {
-            // Actualizar cantidad
-            ItemCarrito item = itemExistente.get();
-            item.setCantidad(item.getCantidad() + itemDTO.getCantidad());
-            itemCarritoRepository.save(item);
-        } else {
-            // Agregar nuevo item
-            ItemCarrito nuevoItem = new ItemCarrito();
-            nuevoItem.setCarrito(carrito);
-            nuevoItem.setProducto(producto);
-            nuevoItem.setCantidad(itemDTO.getCantidad());
-            carrito.getItems().add(nuevoItem);
-            itemCarritoRepository.save(nuevoItem);
-        }
+    @Override
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = CLAVE_POR_NOMBRE)
+    public CarritoDTO vaciarCarrito(@NotBlank String nombreUsuario) {
+        return vaciarCarrito(usuarioIdResolver.resolver(nombreUsuario));
+    }
 
-        carritoRepository.save(carrito);
-        return convertirADTO(carrito);
+    @Override
+    @Transactional
+    @Cacheable(cacheNames = "carritoUsuario", key = "#usuarioId", unless = "#result == null")
+    public CarritoDTO obtenerCarritoPorUsuario(@NotNull Long usuarioId) {
+        return convertirADTO(obtenerOCrearCarrito(usuarioId));
+    }
+
+    @Override
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = "#usuarioId")
+    @Validated(GruposValidacionCarrito.AlAgregar.class)
+    public ResumenCarritoDTO agregarProductoAlCarrito(@NotNull Long usuarioId, @NotNull @Valid ItemCarritoDTO itemDTO) {
+        Long carritoId = carritoRepository.findIdByUsuarioId(usuarioId)
+                .orElseGet(() -> crearCarrito(usuarioId).getId());
+
+        // Inserta la línea o incrementa su cantidad y recalcula el total sin cargar el carrito
+        return itemCarritoRepository.agregarOIncrementar(carritoId, itemDTO.getProductoId(), itemDTO.getCantidad())
+                .orElseThrow(() -> productoRepository.existsById(itemDTO.getProductoId())
+                        ? new RuntimeException("Stock insuficiente")
+                        : new ResourceNotFoundException("Producto no encontrado"));
     }
 
     @Override
-    @CacheEvict(cacheNames = "carritoUsuario", key = "#nombreUsuario")
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = "#usuarioId")
     @Validated(GruposValidacionCarrito.AlActualizar.class)
-    public CarritoDTO actualizarCantidadItem(@NotBlank String nombreUsuario, @NotNull Long itemId, @NotNull Integer cantidad) {
+    public CarritoDTO actualizarCantidadItem(@NotNull Long usuarioId, @NotNull Long itemId, @NotNull Integer cantidad) {
         if (cantidad <= 0) {
             throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
         }
 
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
+        Carrito carrito = carritoRepository.findConItemsByUsuarioId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
 
         ItemCarrito item = itemCarritoRepository.findById(itemId)
@@ -224,17 +235,17 @@ public class CarritoServiceImpl implements CarritoService {
         }
 
         item.setCantidad(cantidad);
+        item.calcularSubtotal();
         itemCarritoRepository.save(item);
+        carrito.calcularTotal();
 
         return convertirADTO(carrito);
     }
 
     @Override
-    public boolean verificarPropiedadItem(@NotNull Long itemId, @NotBlank String nombreUsuario) {
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
+    @Transactional(readOnly = true)
+    public boolean verificarPropiedadItem(@NotNull Long itemId, @NotNull Long usuarioId) {
+        Carrito carrito = carritoRepository.findByUsuarioId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
 
         ItemCarrito item = itemCarritoRepository.findById(itemId)
@@ -244,13 +255,12 @@ public class CarritoServiceImpl implements CarritoService {
     }
 
     @Override
-    @CacheEvict(cacheNames = "carritoUsuario", key = "#nombreUsuario")
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = "#usuarioId")
     @Validated(GruposValidacionCarrito.AlEliminar.class)
-    public CarritoDTO eliminarItemDelCarrito(@NotBlank String nombreUsuario, @NotNull Long itemId) {
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
+    public CarritoDTO eliminarItemDelCarrito(@NotNull Long usuarioId, @NotNull Long itemId) {
+        Carrito carrito = carritoRepository.findConItemsByUsuarioId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
 
         ItemCarrito item = itemCarritoRepository.findById(itemId)
@@ -263,47 +273,125 @@ public class CarritoServiceImpl implements CarritoService {
 
         carrito.getItems().remove(item);
         itemCarritoRepository.delete(item);
+        carrito.calcularTotal();
         carritoRepository.save(carrito);
 
         return convertirADTO(carrito);
     }
 
     @Override
-    @CacheEvict(cacheNames = "carritoUsuario", key = "#nombreUsuario")
-    public CarritoDTO vaciarCarrito(@NotBlank String nombreUsuario) {
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-
-        Carrito carrito = carritoRepository.findByUsuarioId(usuario.getId())
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = "#usuarioId")
+    public CarritoDTO vaciarCarrito(@NotNull Long usuarioId) {
+        Carrito carrito = carritoRepository.findConItemsByUsuarioId(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Carrito no encontrado"));
 
         itemCarritoRepository.deleteAll(carrito.getItems());
         carrito.getItems().clear();
+        carrito.calcularTotal();
         carritoRepository.save(carrito);
 
         return convertirADTO(carrito);
     }
 
-    // Métodos para usuarios no autenticados (sesión)
     @Override
-    @Cacheable(
-            cacheNames = "carritoSesion",
-            key = "T(org.springframework.web.context.request.RequestContextHolder).getRequestAttributes().getSessionId()",
-            unless = "#result == null"
-    )
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = "carritoUsuario", key = "#usuarioId")
+    public CarritoDTO aplicarOperaciones(@NotNull Long usuarioId, @NotEmpty List<OperacionCarritoDTO> operaciones) {
+        // Una sola carga del carrito con sus ítems y una sola consulta para los productos a agregar
+        Carrito carrito = obtenerOCrearCarrito(usuarioId);
+
+        Set<Long> productoIds = operaciones.stream()
+                .filter(op -> op.getTipo() == TipoOperacionCarrito.AGREGAR)
+                .map(OperacionCarritoDTO::getProductoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Producto> productos = productoRepository.findAllById(productoIds).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        Map<Long, ItemCarrito> itemsPorId = new HashMap<>();
+        Map<Long, ItemCarrito> itemsPorProducto = new HashMap<>();
+        // Líneas eliminadas en el lote, por producto; se borran al final. Si el mismo producto se
+        // vuelve a agregar se reutiliza su fila: insertar una nueva chocaría con la restricción
+        // única (carrito, producto), porque Hibernate ejecuta las inserciones antes que los borrados
+        Map<Long, ItemCarrito> eliminadosPorProducto = new HashMap<>();
+        for (ItemCarrito item : carrito.getItems()) {
+            itemsPorId.put(item.getId(), item);
+            itemsPorProducto.put(item.getProducto().getId(), item);
+        }
+
+        for (OperacionCarritoDTO operacion : operaciones) {
+            switch (operacion.getTipo()) {
+                case AGREGAR -> {
+                    Producto producto = Optional.ofNullable(operacion.getProductoId())
+                            .map(productos::get)
+                            .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+                    int cantidad = cantidadPositiva(operacion.getCantidad());
+
+                    ItemCarrito item = itemsPorProducto.get(producto.getId());
+                    if (item == null && eliminadosPorProducto.containsKey(producto.getId())) {
+                        item = eliminadosPorProducto.remove(producto.getId());
+                        carrito.getItems().add(item);
+                        itemsPorId.put(item.getId(), item);
+                        itemsPorProducto.put(producto.getId(), item);
+                    } else if (item == null) {
+                        item = new ItemCarrito();
+                        item.setCarrito(carrito);
+                        item.setProducto(producto);
+                        item.setPrecioUnitario(producto.getPrecio());
+                        carrito.getItems().add(item);
+                        itemsPorProducto.put(producto.getId(), item);
+                    } else {
+                        cantidad += item.getCantidad();
+                    }
+
+                    if (producto.getStock() < cantidad) {
+                        throw new RuntimeException("Stock insuficiente");
+                    }
+                    item.setCantidad(cantidad);
+                    item.calcularSubtotal();
+                }
+                case ACTUALIZAR -> {
+                    ItemCarrito item = itemDelCarrito(itemsPorId, operacion.getItemId());
+                    int cantidad = cantidadPositiva(operacion.getCantidad());
+
+                    if (item.getProducto().getStock() < cantidad) {
+                        throw new RuntimeException("Stock insuficiente");
+                    }
+                    item.setCantidad(cantidad);
+                    item.calcularSubtotal();
+                }
+                case ELIMINAR -> {
+                    ItemCarrito item = itemDelCarrito(itemsPorId, operacion.getItemId());
+                    carrito.getItems().remove(item);
+                    itemsPorId.remove(item.getId());
+                    itemsPorProducto.remove(item.getProducto().getId());
+                    eliminadosPorProducto.put(item.getProducto().getId(), item);
+                }
+            }
+        }
+
+        // Los ítems nuevos se insertan en cascada al guardar el carrito; aquí solo se borran las
+        // líneas que siguen eliminadas al terminar el lote
+        itemCarritoRepository.deleteAll(eliminadosPorProducto.values());
+        carrito.calcularTotal();
+        carritoRepository.save(carrito);
+
+        return convertirADTO(carrito);
+    }
+
+    // Métodos para usuarios no autenticados (sesión). El carrito de invitado guarda solo pares
+    // (producto, cantidad); el ID de cada ítem es el ID de su producto
+    @Override
     public CarritoDTO obtenerCarritoSesion() {
-        return sessionManager.getCarritoSesion();
+        return construirCarritoSesion(carritoInvitadoStore.obtenerLineas());
     }
 
     @Override
-    @CacheEvict(
-            cacheNames = "carritoSesion",
-            key = "T(org.springframework.web.context.request.RequestContextHolder).getRequestAttributes().getSessionId()"
-    )
     @Validated(GruposValidacionCarrito.AlAgregar.class)
     public CarritoDTO agregarProductoAlCarritoSesion(@NotNull @Valid ItemCarritoDTO itemDTO) {
-        CarritoDTO carritoSesion = sessionManager.getCarritoSesion();
-
         // Verificar stock
         Producto producto = productoRepository.findById(itemDTO.getProductoId())
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
@@ -312,116 +400,114 @@ public class CarritoServiceImpl implements CarritoService {
             throw new RuntimeException("Stock insuficiente");
         }
 
-        // Verificar si el producto ya existe en el carrito de sesión
-        Optional<ItemCarritoDTO> itemExistente = carritoSesion.getItems().stream()
-                .filter(item -> item.getProductoId().equals(itemDTO.getProductoId()))
-                .findFirst();
-
-        if (itemExistente.isPresent()) {
-            // Actualizar cantidad
-            ItemCarritoDTO item = itemExistente.get();
-            item.setCantidad(item.getCantidad() + itemDTO.getCantidad());
-        } else {
-            // Agregar nuevo item
-            carritoSesion.getItems().add(itemDTO);
-        }
-
-        sessionManager.setCarritoSesion(carritoSesion);
-        return carritoSesion;
+        carritoInvitadoStore.agregar(producto.getId(), itemDTO.getCantidad());
+        return obtenerCarritoSesion();
     }
 
     @Override
-    @CacheEvict(
-            cacheNames = "carritoSesion",
-            key = "T(org.springframework.web.context.request.RequestContextHolder).getRequestAttributes().getSessionId()"
-    )
     @Validated(GruposValidacionCarrito.AlActualizar.class)
     public CarritoDTO actualizarCantidadItemSesion(@NotNull Long itemId, @NotNull Integer cantidad) {
         if (cantidad <= 0) {
             throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
         }
 
-        CarritoDTO carritoSesion = sessionManager.getCarritoSesion();
-
-        // Buscar el item en el carrito de sesión
-        Optional<ItemCarritoDTO> itemOptional = carritoSesion.getItems().stream()
-                .filter(item -> item.getId().equals(itemId))
-                .findFirst();
-
-        if (!itemOptional.isPresent()) {
-            throw new RuntimeException("Item no encontrado en el carrito de sesión");
-        }
-
-        ItemCarritoDTO item = itemOptional.get();
-
         // Verificar stock
-        Producto producto = productoRepository.findById(item.getProductoId())
+        Producto producto = productoRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         if (producto.getStock() < cantidad) {
             throw new RuntimeException("Stock insuficiente");
         }
 
-        item.setCantidad(cantidad);
-        sessionManager.setCarritoSesion(carritoSesion);
-
-        return carritoSesion;
+        if (!carritoInvitadoStore.actualizar(itemId, cantidad)) {
+            throw new RuntimeException("Item no encontrado en el carrito de sesión");
+        }
+        return obtenerCarritoSesion();
     }
 
     @Override
-    @CacheEvict(
-            cacheNames = "carritoSesion",
-            key = "T(org.springframework.web.context.request.RequestContextHolder).getRequestAttributes().getSessionId()"
-    )
     @Validated(GruposValidacionCarrito.AlEliminar.class)
     public CarritoDTO eliminarItemDelCarritoSesion(@NotNull Long itemId) {
-        CarritoDTO carritoSesion = sessionManager.getCarritoSesion();
-
-        // Eliminar el item del carrito de sesión
-        boolean eliminado = carritoSesion.getItems().removeIf(item -> item.getId().equals(itemId));
-
-        if (!eliminado) {
+        if (!carritoInvitadoStore.eliminar(itemId)) {
             throw new RuntimeException("Item no encontrado en el carrito de sesión");
         }
-
-        sessionManager.setCarritoSesion(carritoSesion);
-
-        return carritoSesion;
+        return obtenerCarritoSesion();
     }
 
     @Override
-    @CacheEvict(
-            cacheNames = "carritoSesion",
-            key = "T(org.springframework.web.context.request.RequestContextHolder).getRequestAttributes().getSessionId()"
-    )
     public CarritoDTO vaciarCarritoSesion() {
+        carritoInvitadoStore.vaciar();
+        return construirCarritoSesion(Map.of());
+    }
+
+    // Completa las líneas del carrito de invitado con los datos del catálogo en caché;
+    // las líneas de productos que ya no existen se omiten
+    private CarritoDTO construirCarritoSesion(Map<Long, Integer> lineas) {
         CarritoDTO carritoSesion = new CarritoDTO();
-        carritoSesion.setItems(new ArrayList<>());
-        sessionManager.setCarritoSesion(carritoSesion);
+        List<ItemCarritoDTO> items = new ArrayList<>(lineas.size());
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (Map.Entry<Long, Integer> linea : lineas.entrySet()) {
+            ProductoDTO producto;
+            try {
+                producto = productoService.obtenerProductoPorId(linea.getKey());
+            } catch (ResourceNotFoundException e) {
+                continue;
+            }
+
+            ItemCarritoDTO item = new ItemCarritoDTO();
+            item.setId(producto.getId());
+            item.setProductoId(producto.getId());
+            item.setNombreProducto(producto.getNombre());
+            item.setImagenProducto(producto.getImagenUrl());
+            item.setCantidad(linea.getValue());
+            item.setPrecioUnitario(producto.getPrecio());
+            item.setSubtotal(producto.getPrecio().multiply(BigDecimal.valueOf(linea.getValue())));
+            items.add(item);
+            total = total.add(item.getSubtotal());
+        }
+
+        carritoSesion.setItems(items);
+        carritoSesion.setTotal(total);
+        carritoSesion.actualizarCantidadItems();
         return carritoSesion;
     }
 
+    // Carga el carrito del usuario con sus ítems o lo crea
+    private Carrito obtenerOCrearCarrito(Long usuarioId) {
+        return carritoRepository.findConItemsByUsuarioId(usuarioId)
+                .orElseGet(() -> crearCarrito(usuarioId));
+    }
+
+    // Crea un carrito vacío; el usuario se referencia sin consultarlo
+    private Carrito crearCarrito(Long usuarioId) {
+        Carrito nuevoCarrito = new Carrito();
+        nuevoCarrito.setUsuario(usuarioRepository.getReferenceById(usuarioId));
+        return carritoRepository.save(nuevoCarrito);
+    }
+
+    // Busca un ítem entre los ya cargados del carrito; si no está, no pertenece al usuario
+    private static ItemCarrito itemDelCarrito(Map<Long, ItemCarrito> itemsPorId, Long itemId) {
+        ItemCarrito item = itemId == null ? null : itemsPorId.get(itemId);
+        if (item == null) {
+            throw new RuntimeException("El item no pertenece al carrito del usuario");
+        }
+        return item;
+    }
+
+    private static int cantidadPositiva(Integer cantidad) {
+        if (cantidad == null || cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser mayor a cero");
+        }
+        return cantidad;
+    }
+
     // Método auxiliar para convertir entidad a DTO
     private CarritoDTO convertirADTO(Carrito carrito) {
-        CarritoDTO carritoDTO = modelMapper.map(carrito, CarritoDTO.class);
-
-        // Mapear items manualmente si es necesario
-        if (carrito.getItems() != null) {
-            List<ItemCarritoDTO> itemsDTO = carrito.getItems().stream()
-                    .map(item -> {
-                        ItemCarritoDTO itemDTO = modelMapper.map(item, ItemCarritoDTO.class);
-                        itemDTO.setProductoId(item.getProducto().getId());
-                        itemDTO.setNombreProducto(item.getProducto().getNombre());
-                        itemDTO.setPrecioUnitario(item.getProducto().getPrecio());
-                        return itemDTO;
-                    })
-                    .collect(Collectors.toList());
-
-            carritoDTO.setItems(itemsDTO);
-        } else {
+        CarritoDTO carritoDTO = carritoMapper.toDto(carrito);
+        if (carritoDTO.getItems() == null) {
             carritoDTO.setItems(new ArrayList<>());
         }
-
         return carritoDTO;
     }
 }
@@ -0,0 +1,66 @@
+package com.example.proyectoProgramacion.service.impl;
+
+import com.example.proyectoProgramacion.model.dto.admin.EstadisticasDashboardDTO;
+import com.example.proyectoProgramacion.model.enums.EstadoOrden;
+import com.example.proyectoProgramacion.repository.OrdenRepository;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import com.example.proyectoProgramacion.repository.UsuarioRepository;
+import com.example.proyectoProgramacion.service.interfaces.DashboardService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    // Estados cuyas órdenes cuentan como ingreso
+    private static final Set<EstadoOrden> ESTADOS_CON_INGRESO = EnumSet.of(
+            EstadoOrden.PAGADA, EstadoOrden.EN_PROCESO, EstadoOrden.ENVIADA,
+            EstadoOrden.ENTREGADA, EstadoOrden.COMPLETADA);
+
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final OrdenRepository ordenRepository;
+    private final int umbralStockBajo;
+
+    public DashboardServiceImpl(ProductoRepository productoRepository,
+                                UsuarioRepository usuarioRepository,
+                                OrdenRepository ordenRepository,
+                                @Value("${app.dashboard.umbral-stock-bajo:5}") int umbralStockBajo) {
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.ordenRepository = ordenRepository;
+        this.umbralStockBajo = umbralStockBajo;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = "estadisticasDashboard", key = "'panel'")
+    public EstadisticasDashboardDTO obtenerEstadisticas() {
+        EstadisticasDashboardDTO estadisticas = new EstadisticasDashboardDTO();
+        estadisticas.setTotalProductos(productoRepository.count());
+        estadisticas.setTotalUsuarios(usuarioRepository.count());
+        estadisticas.setProductosStockBajo(productoRepository.countByActivoTrueAndStockLessThanEqual(umbralStockBajo));
+        estadisticas.setUmbralStockBajo(umbralStockBajo);
+
+        // Una sola consulta agrupada da el conteo por estado, el total de órdenes y los ingresos
+        long totalOrdenes = 0;
+        BigDecimal ingresos = BigDecimal.ZERO;
+        for (OrdenRepository.ResumenEstadoOrden resumen : ordenRepository.resumirPorEstado()) {
+            estadisticas.getOrdenesPorEstado().put(resumen.getEstado(), resumen.getCantidad());
+            totalOrdenes += resumen.getCantidad();
+            if (ESTADOS_CON_INGRESO.contains(resumen.getEstado()) && resumen.getTotal() != null) {
+                ingresos = ingresos.add(resumen.getTotal());
+            }
+        }
+        estadisticas.setTotalOrdenes(totalOrdenes);
+        estadisticas.setIngresosTotales(ingresos);
+
+        return estadisticas;
+    }
+}
@@ -1,19 +1,24 @@
 package com.example.proyectoProgramacion.service.impl;
 
+import com.example.proyectoProgramacion.config.ReintentarEnConflicto;
 import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
-import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
-import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.mapper.OrdenMapper;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenDetalleDTO;
 import com.example.proyectoProgramacion.model.entity.*;
 import com.example.proyectoProgramacion.model.enums.EstadoOrden;
+import com.example.proyectoProgramacion.repository.CarritoRepository;
 import com.example.proyectoProgramacion.repository.OrdenDetalleRepository;
 import com.example.proyectoProgramacion.repository.OrdenRepository;
 import com.example.proyectoProgramacion.repository.ProductoRepository;
 import com.example.proyectoProgramacion.repository.UsuarioRepository;
+import com.example.proyectoProgramacion.security.UsuarioIdResolver;
+import com.example.proyectoProgramacion.service.GeneradorNumeroOrden;
 import com.example.proyectoProgramacion.service.interfaces.CarritoService;
 import com.example.proyectoProgramacion.service.interfaces.OrdenService;
-import org.modelmapper.ModelMapper;
+import com.example.proyectoProgramacion.service.interfaces.ProductoService;
+import com.example.proyectoProgramacion.util.CursorPaginacion;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
@@ -28,101 +33,142 @@ import org.springframework.validation.annotation.Validated;
 
 import jakarta.persistence.criteria.Predicate;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Validated
 public class OrdenServiceImpl implements OrdenService {
 
+    // Ordenes admitidos en los listados por cursor, con el ID como desempate
+    private static final Set<String> ORDENES_LISTADO = Set.of("fechaCreacion", "total", "id");
+    private static final Sort ORDEN_LISTADO = Sort.by(Sort.Direction.DESC, "fechaCreacion");
+
     private final OrdenRepository ordenRepository;
     private final OrdenDetalleRepository ordenDetalleRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
+    private final ProductoService productoService;
     private final CarritoService carritoService;
-    private final ModelMapper modelMapper;
+    private final CarritoRepository carritoRepository;
+    private final OrdenMapper ordenMapper;
+    private final UsuarioIdResolver usuarioIdResolver;
+    private final GeneradorNumeroOrden generadorNumeroOrden;
 
     public OrdenServiceImpl(OrdenRepository ordenRepository,
                            OrdenDetalleRepository ordenDetalleRepository,
                            UsuarioRepository usuarioRepository,
                            ProductoRepository productoRepository,
+                           ProductoService productoService,
                            CarritoService carritoService,
-                           ModelMapper modelMapper) {
+                           CarritoRepository carritoRepository,
+                           OrdenMapper ordenMapper,
+                           UsuarioIdResolver usuarioIdResolver,
+                           GeneradorNumeroOrden generadorNumeroOrden) {
         this.ordenRepository = ordenRepository;
         this.ordenDetalleRepository = ordenDetalleRepository;
         this.usuarioRepository = usuarioRepository;
         this.productoRepository = productoRepository;
+        this.productoService = productoService;
         this.carritoService = carritoService;
-        this.modelMapper = modelMapper;
+        this.carritoRepository = carritoRepository;
+        this.ordenMapper = ordenMapper;
+        this.usuarioIdResolver = usuarioIdResolver;
+        this.generadorNumeroOrden = generadorNumeroOrden;
     }
 
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @ReintentarEnConflicto
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @CacheEvict(cacheNames = {"ordenesUsuario", "todasOrdenes", "totalOrdenes", "ordenesRecientes"}, allEntries = true)
     public OrdenDTO crearOrden(@NotBlank String nombreUsuario, @NotBlank String direccionEnvio) {
-        // Obtener usuario
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
-
-        // Obtener carrito del usuario
-        CarritoDTO carritoDTO = carritoService.obtenerCarritoPorUsuario(nombreUsuario);
+        return crearOrden(usuarioIdResolver.resolver(nombreUsuario), direccionEnvio);
+    }
 
-        if (carritoDTO.getItems().isEmpty()) {
+    @Override
+    @ReintentarEnConflicto
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @CacheEvict(cacheNames = {"ordenesUsuario", "todasOrdenes", "totalOrdenes", "ordenesRecientes"}, allEntries = true)
+    public OrdenDTO crearOrden(@NotNull Long usuarioId, @NotBlank String direccionEnvio) {
+        // Las líneas del carrito se leen de la base de datos y no de la caché carritoUsuario:
+        // la orden debe reflejar exactamente lo que hay en el carrito al confirmar
+        List<ItemCarrito> items = carritoRepository.findConItemsByUsuarioId(usuarioId)
+                .map(Carrito::getItems)
+                .orElse(List.of());
+
+        if (items.isEmpty()) {
             throw new IllegalStateException("No se puede crear una orden con un carrito vacío");
         }
 
+        // Reservar stock con actualizaciones condicionales en lote; si falta stock en alguna
+        // línea, la excepción revierte toda la transacción, incluidas las reservas ya aplicadas
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (ItemCarrito item : items) {
+            cantidades.merge(item.getProducto().getId(), item.getCantidad(), Integer::sum);
+        }
+
+        List<Long> sinStock = productoRepository.reservarStock(cantidades);
+        if (!sinStock.isEmpty()) {
+            String nombres = items.stream()
+                    .map(ItemCarrito::getProducto)
+                    .filter(producto -> sinStock.contains(producto.getId()))
+                    .map(Producto::getNombre)
+                    .distinct()
+                    .collect(Collectors.joining(", "));
+            throw new IllegalStateException("Stock insuficiente para el producto: " + nombres);
+        }
+        // El stock se muestra en el catálogo: invalida cachés y ETag al confirmar la orden
+        productoService.registrarCambioStock(cantidades.keySet());
+
+        Map<Long, Producto> productos = productoRepository.findAllById(cantidades.keySet()).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
         // Crear orden
         Orden orden = new Orden();
-        orden.setUsuario(usuario);
+        orden.setNumero(generadorNumeroOrden.siguiente());
+        orden.setUsuario(usuarioRepository.getReferenceById(usuarioId));
         orden.setFechaCreacion(LocalDateTime.now());
         orden.setEstado(EstadoOrden.PENDIENTE);
         orden.setDireccionEnvio(direccionEnvio);
-        orden.setTotal(BigDecimal.ZERO);
-
-        // Guardar orden para obtener ID
-        orden = ordenRepository.save(orden);
 
         // Crear detalles de la orden
         BigDecimal total = BigDecimal.ZERO;
         List<DetalleOrden> detalles = new ArrayList<>();
 
-        for (ItemCarritoDTO item : carritoDTO.getItems()) {
-            Producto producto = productoRepository.findById(item.getProductoId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
-
-            // Verificar stock
-            if (producto.getStock() < item.getCantidad()) {
-                throw new IllegalStateException("Stock insuficiente para el producto: " + producto.getNombre());
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            Producto producto = productos.get(linea.getKey());
+            if (producto == null) {
+                throw new ResourceNotFoundException("Producto no encontrado");
             }
 
-            // Actualizar stock
-            producto.setStock(producto.getStock() - item.getCantidad());
-            productoRepository.save(producto);
-
             // Crear detalle
             DetalleOrden detalle = new DetalleOrden();
             detalle.setOrden(orden);
             detalle.setProducto(producto);
-            detalle.setCantidad(item.getCantidad());
-            // Corregir el método setPrecioUnitario
+            detalle.setCantidad(linea.getValue());
             detalle.setPrecio(producto.getPrecio());
-            detalle.setSubtotal(producto.getPrecio().multiply(BigDecimal.valueOf(item.getCantidad())));
+            detalle.setSubtotal(producto.getPrecio().multiply(BigDecimal.valueOf(linea.getValue())));
 
             detalles.add(detalle);
             total = total.add(detalle.getSubtotal());
         }
 
-        // Guardar detalles
-        ordenDetalleRepository.saveAll(detalles);
-
-        // Actualizar total de la orden
+        // Con IDs por secuencia, la orden y sus detalles se insertan al hacer flush, los
+        // detalles en lotes JDBC, y el total ya va en el INSERT de la orden
         orden.setTotal(total);
         orden = ordenRepository.save(orden);
+        ordenDetalleRepository.saveAll(detalles);
 
         // Vaciar carrito
-        carritoService.vaciarCarrito(nombreUsuario);
+        carritoService.vaciarCarrito(usuarioId);
 
         // Convertir a DTO y retornar
         return convertirADTO(orden);
@@ -138,24 +184,55 @@ public class OrdenServiceImpl implements OrdenService {
     }
 
     @Override
-    @Cacheable(cacheNames = "ordenesUsuario", key = "#nombreUsuario + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Transactional(readOnly = true)
+    public OrdenDTO obtenerOrdenPorNumero(String numero) {
+        Orden orden = ordenRepository.findByNumero(numero)
+                .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada"));
+
+        return convertirADTO(orden);
+    }
+
+    @Override
+    @Cacheable(cacheNames = "ordenesUsuario", key = "@usuarioIdResolver.resolver(#nombreUsuario) + '_' + #pageable")
     public Page<OrdenDTO> obtenerOrdenesPorUsuario(String nombreUsuario, Pageable pageable) {
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+        return obtenerOrdenesPorUsuario(usuarioIdResolver.resolver(nombreUsuario), pageable);
+    }
 
-        Page<Orden> ordenes = ordenRepository.findByUsuario(usuario, pageable);
+    @Override
+    @Cacheable(cacheNames = "ordenesUsuario", key = "#usuarioId + '_' + #pageable")
+    public Page<OrdenDTO> obtenerOrdenesPorUsuario(Long usuarioId, Pageable pageable) {
+        Page<Orden> ordenes = ordenRepository.findByUsuarioId(usuarioId, pageable);
 
         return ordenes.map(this::convertirADTO);
     }
 
     @Override
-    @Cacheable(cacheNames = "todasOrdenes", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<OrdenDTO> obtenerOrdenesPorUsuarioPorCursor(Long usuarioId, String cursor,
+                                                                       Sort sort, int tamano) {
+        CursorPaginacion.Cursor posicion = CursorPaginacion.leer(cursor, sort, ORDEN_LISTADO, ORDENES_LISTADO);
+        return CursorPaginacion.pagina(ordenRepository
+                .findByUsuarioId(usuarioId, posicion.posicion(), posicion.orden(), CursorPaginacion.limite(tamano))
+                .map(this::convertirADTO), posicion.orden());
+    }
+
+    @Override
+    @Cacheable(cacheNames = "todasOrdenes", key = "#pageable")
     public Page<OrdenDTO> obtenerTodasLasOrdenes(Pageable pageable) {
         Page<Orden> ordenes = ordenRepository.findAll(pageable);
 
         return ordenes.map(this::convertirADTO);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<OrdenDTO> obtenerTodasLasOrdenesPorCursor(String cursor, Sort sort, int tamano) {
+        CursorPaginacion.Cursor posicion = CursorPaginacion.leer(cursor, sort, ORDEN_LISTADO, ORDENES_LISTADO);
+        return CursorPaginacion.pagina(ordenRepository
+                .findAllBy(posicion.posicion(), posicion.orden(), CursorPaginacion.limite(tamano))
+                .map(this::convertirADTO), posicion.orden());
+    }
+
     @Override
     @Transactional
     @CacheEvict(cacheNames = {"ordenes", "ordenesUsuario", "todasOrdenes"}, allEntries = true)
@@ -179,17 +256,23 @@ public class OrdenServiceImpl implements OrdenService {
     }
 
     @Override
+    @ReintentarEnConflicto
     @Transactional
     @CacheEvict(cacheNames = {"ordenes", "ordenesUsuario", "todasOrdenes"}, allEntries = true)
     public OrdenDTO cancelarOrden(Long ordenId, String nombreUsuario) {
+        return cancelarOrden(ordenId, usuarioIdResolver.resolver(nombreUsuario));
+    }
+
+    @Override
+    @ReintentarEnConflicto
+    @Transactional
+    @CacheEvict(cacheNames = {"ordenes", "ordenesUsuario", "todasOrdenes"}, allEntries = true)
+    public OrdenDTO cancelarOrden(Long ordenId, Long usuarioId) {
         Orden orden = ordenRepository.findById(ordenId)
                 .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada"));
 
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
-
         // Verificar si la orden pertenece al usuario
-        if (!orden.getUsuario().getId().equals(usuario.getId())) {
+        if (!orden.getUsuario().getId().equals(usuarioId)) {
             throw new IllegalStateException("La orden no pertenece al usuario");
         }
 
@@ -206,19 +289,19 @@ public class OrdenServiceImpl implements OrdenService {
         orden.setEstado(EstadoOrden.CANCELADA);
         orden = ordenRepository.save(orden);
 
-        // Restaurar stock de productos
-        List<DetalleOrden> detalles = ordenDetalleRepository.findByOrdenId(ordenId);
-        for (DetalleOrden detalle : detalles) {
-            Producto producto = detalle.getProducto();
-            producto.setStock(producto.getStock() + detalle.getCantidad());
-            productoRepository.save(producto);
+        // Restaurar stock de productos en un solo lote, sin leer ni sobrescribir las entidades
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (DetalleOrden detalle : ordenDetalleRepository.findByOrdenId(ordenId)) {
+            cantidades.merge(detalle.getProducto().getId(), detalle.getCantidad(), Integer::sum);
         }
+        productoRepository.reponerStock(cantidades);
+        productoService.registrarCambioStock(cantidades.keySet());
 
         return convertirADTO(orden);
     }
 
     @Override
-    @Cacheable(cacheNames = "busquedaOrdenes", key = "#estado + '_' + #fechaInicio + '_' + #fechaFin + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(cacheNames = "busquedaOrdenes", key = "#estado + '_' + #fechaInicio + '_' + #fechaFin + '_' + #pageable")
     public Page<OrdenDTO> buscarOrdenes(EstadoOrden estado, LocalDateTime fechaInicio,
                                         LocalDateTime fechaFin, Pageable pageable) {
         Specification<Orden> spec = (root, query, cb) -> {
@@ -247,13 +330,15 @@ public class OrdenServiceImpl implements OrdenService {
 
     @Override
     public boolean verificarPropiedadOrden(Long ordenId, String nombreUsuario) {
+        return verificarPropiedadOrden(ordenId, usuarioIdResolver.resolver(nombreUsuario));
+    }
+
+    @Override
+    public boolean verificarPropiedadOrden(Long ordenId, Long usuarioId) {
         Orden orden = ordenRepository.findById(ordenId)
                 .orElseThrow(() -> new ResourceNotFoundException("Orden no encontrada"));
 
-        Usuario usuario = usuarioRepository.findByUsername(nombreUsuario)
-                .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
-
-        return orden.getUsuario().getId().equals(usuario.getId());
+        return orden.getUsuario().getId().equals(usuarioId);
     }
 
     @Override
@@ -262,12 +347,7 @@ public class OrdenServiceImpl implements OrdenService {
         List<DetalleOrden> detalles = ordenDetalleRepository.findByOrdenId(ordenId);
 
         return detalles.stream()
-                .map(detalle -> {
-                    OrdenDetalleDTO dto = modelMapper.map(detalle, OrdenDetalleDTO.class);
-                    dto.setProductoId(detalle.getProducto().getId());
-                    dto.setNombreProducto(detalle.getProducto().getNombre());
-                    return dto;
-                })
+                .map(ordenMapper::toDetalleDto)
                 .collect(Collectors.toList());
     }
 
@@ -289,11 +369,7 @@ public class OrdenServiceImpl implements OrdenService {
 
     // Método auxiliar para convertir entidad a DTO
     private OrdenDTO convertirADTO(Orden orden) {
-        OrdenDTO ordenDTO = modelMapper.map(orden, OrdenDTO.class);
-        // Corregir los métodos setUsuarioId y setNombreUsuario
-        ordenDTO.setId(orden.getUsuario().getId());
-        ordenDTO.setUsuario(orden.getUsuario().getUsername());
-        return ordenDTO;
+        return ordenMapper.toDto(orden);
     }
 }
 
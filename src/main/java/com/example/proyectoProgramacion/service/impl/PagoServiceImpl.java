@@ -1,5 +1,6 @@
 package com.example.proyectoProgramacion.service.impl;
 
+import com.example.proyectoProgramacion.mapper.PagoMapper;
 import com.example.proyectoProgramacion.model.dto.pago.PagoDTO;
 import com.example.proyectoProgramacion.model.dto.pago.PagoRequestDTO;
 import com.example.proyectoProgramacion.model.dto.pago.PagoResponseDTO;
@@ -23,10 +24,12 @@ import java.util.stream.Collectors;
 public class PagoServiceImpl implements PagoService {
 
     private final PagoRepository pagoRepository;
+    private final PagoMapper pagoMapper;
 
     @Autowired
-    public PagoServiceImpl(PagoRepository pagoRepository) {
+    public PagoServiceImpl(PagoRepository pagoRepository, PagoMapper pagoMapper) {
         this.pagoRepository = pagoRepository;
+        this.pagoMapper = pagoMapper;
     }
 
     @Override
@@ -167,23 +170,7 @@ public class PagoServiceImpl implements PagoService {
 
     // Método auxiliar para convertir Pago a PagoDTO
     private PagoDTO convertirAPagoDTO(Pago pago) {
-        PagoDTO dto = new PagoDTO();
-        dto.setId(pago.getId());
-        dto.setMetodo(pago.getMetodo());
-        dto.setFecha(pago.getFecha());
-        dto.setUltimosDigitos(pago.getUltimosDigitos());
-        // No usar setEstado si no existe en PagoDTO
-
-        if (pago.getOrden() != null) {
-            dto.setOrdenId(pago.getOrden().getId());
-        }
-
-        if (pago.getUsuario() != null) {
-            dto.setUsuarioId(pago.getUsuario().getId());
-            dto.setNombreUsuario(pago.getUsuario().getNombre());
-        }
-
-        return dto;
+        return pagoMapper.toDto(pago);
     }
 }
 
@@ -1,20 +1,39 @@
 package com.example.proyectoProgramacion.service.impl;
 
+import com.example.proyectoProgramacion.config.ReintentarEnConflicto;
 import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
+import com.example.proyectoProgramacion.mapper.ProductoMapper;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
+import com.example.proyectoProgramacion.model.dto.producto.CatalogoFacetadoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.model.entity.Producto;
 import com.example.proyectoProgramacion.model.enums.Categoria;
 import com.example.proyectoProgramacion.repository.ProductoRepository;
+import com.example.proyectoProgramacion.service.ProductosDestacados;
+import com.example.proyectoProgramacion.service.ProductosRelacionados;
+import com.example.proyectoProgramacion.service.VersionCatalogo;
+import com.example.proyectoProgramacion.service.busqueda.ProductoAtributosIndex;
+import com.example.proyectoProgramacion.service.busqueda.ProductoSearchIndex;
 import com.example.proyectoProgramacion.service.interfaces.ProductoService;
-import org.modelmapper.ModelMapper;
-import org.modelmapper.convention.MatchingStrategies;
+import com.example.proyectoProgramacion.util.CursorPaginacion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
@@ -30,9 +49,14 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -42,38 +66,70 @@ import lombok.extern.slf4j.Slf4j;
 @Validated
 public class ProductoServiceImpl implements ProductoService {
 
+    // Ordenes admitidos en el listado por cursor: columnas no nulas, con el ID como desempate
+    private static final Set<String> ORDENES_CATALOGO = Set.of("nombre", "precio", "fechaCreacion", "id");
+    private static final Sort ORDEN_CATALOGO = Sort.by(Sort.Direction.DESC, "fechaCreacion");
+    // Mayor precio representable en la columna (precision 10, scale 2)
+    private static final BigDecimal PRECIO_MAXIMO = new BigDecimal("99999999.99");
+    // Listados cacheados que muestran el stock; no se pueden invalidar por ID de producto
+    private static final List<String> CACHES_LISTADOS = List.of("productos", "productosPorCategoria", "productosOferta");
+
     // Usar constructor injection en lugar de field injection
     private final ProductoRepository productoRepository;
-    private final ModelMapper modelMapper;
+    private final ProductoMapper productoMapper;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final ProductoAtributosIndex productoAtributosIndex;
+    private final ProductosDestacados productosDestacados;
+    private final ProductosRelacionados productosRelacionados;
+    private final VersionCatalogo versionCatalogo;
+    private final CacheManager cacheManager;
 
     @Autowired
     public ProductoServiceImpl(ProductoRepository productoRepository,
-                             ModelMapper modelMapper) {
+                             ProductoMapper productoMapper,
+                             ProductoSearchIndex productoSearchIndex,
+                             ProductoAtributosIndex productoAtributosIndex,
+                             ProductosDestacados productosDestacados,
+                             ProductosRelacionados productosRelacionados,
+                             VersionCatalogo versionCatalogo,
+                             CacheManager cacheManager) {
         this.productoRepository = productoRepository;
-        this.modelMapper = modelMapper;
-        
-        // Configuración básica del mapeo
-        this.modelMapper.getConfiguration()
-            .setMatchingStrategy(MatchingStrategies.STRICT)
-            .setSkipNullEnabled(true);
+        this.productoMapper = productoMapper;
+        this.productoSearchIndex = productoSearchIndex;
+        this.productoAtributosIndex = productoAtributosIndex;
+        this.productosDestacados = productosDestacados;
+        this.productosRelacionados = productosRelacionados;
+        this.versionCatalogo = versionCatalogo;
+        this.cacheManager = cacheManager;
     }
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {"productos", "productosPorCategoria", "productosDestacados"}, allEntries = true)
+    @CacheEvict(cacheNames = {"productos", "productosPorCategoria", "productosOferta"}, allEntries = true)
     public ProductoDTO crearProducto(@NotNull @Valid ProductoDTO productoDTO) {
         Producto producto = convertirAEntidad(productoDTO);
         producto.setFechaCreacion(LocalDateTime.now());
-        producto = productoRepository.save(producto);
-        return convertirADTO(producto);
+        Producto productoGuardado = productoRepository.save(producto);
+        versionCatalogo.registrarCambio(List.of(productoGuardado.getId()));
+        alConfirmar(() -> {
+            productoSearchIndex.indexar(productoGuardado);
+            productoAtributosIndex.indexar(productoGuardado);
+            productosRelacionados.indexar(productoGuardado);
+            if (esDestacado(productoGuardado)) {
+                productosDestacados.refrescar();
+            }
+        });
+        return convertirADTO(productoGuardado);
     }
 
     @Override
+    @ReintentarEnConflicto
     @Transactional
-    @CacheEvict(cacheNames = {"productos", "producto", "productosPorCategoria", "productosDestacados"}, allEntries = true)
+    @CacheEvict(cacheNames = {"productos", "producto", "productosPorCategoria", "productosOferta"}, allEntries = true)
     public ProductoDTO actualizarProducto(@NotNull Long id, @NotNull @Valid ProductoDTO productoDTO) {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+        boolean eraDestacado = esDestacado(producto);
 
         // Actualizar campos
         producto.setNombre(productoDTO.getNombre());
@@ -88,48 +144,117 @@ public class ProductoServiceImpl implements ProductoService {
             producto.setCategoria(productoDTO.getCategoria()); // Ahora trabajamos directamente con el enum
         }
 
-        producto = productoRepository.save(producto);
-        return convertirADTO(producto);
+        Producto productoGuardado = productoRepository.save(producto);
+        versionCatalogo.registrarCambio(List.of(id));
+        // Un cambio de destacado/activo altera la lista; si ya estaba, sus datos pueden haber cambiado
+        boolean refrescarDestacados = eraDestacado || esDestacado(productoGuardado);
+        alConfirmar(() -> {
+            productoSearchIndex.indexar(productoGuardado);
+            productoAtributosIndex.indexar(productoGuardado);
+            productosRelacionados.indexar(productoGuardado);
+            if (refrescarDestacados) {
+                productosDestacados.refrescar();
+            }
+        });
+        return convertirADTO(productoGuardado);
     }
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {"productos", "producto", "productosPorCategoria", "productosDestacados"}, allEntries = true)
+    @CacheEvict(cacheNames = {"productos", "producto", "productosPorCategoria", "productosOferta"}, allEntries = true)
     public void eliminarProducto(@NotNull Long id) {
         if (!productoRepository.existsById(id)) {
             throw new ResourceNotFoundException("Producto no encontrado");
         }
         productoRepository.deleteById(id);
+        versionCatalogo.registrarCambio(List.of(id));
+        alConfirmar(() -> {
+            productoSearchIndex.eliminar(id);
+            productoAtributosIndex.eliminar(id);
+            productosRelacionados.eliminar(id);
+            if (productosDestacados.contiene(id)) {
+                productosDestacados.refrescar();
+            }
+        });
     }
 
     @Override
     @Cacheable(value = "producto", key = "#id")
     public ProductoDTO obtenerProductoPorId(@NotNull Long id) {
+        return obtenerProductoActual(id);
+    }
+
+    @Override
+    public ProductoDTO obtenerProductoActual(@NotNull Long id) {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
         return convertirADTO(producto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "productos")
-    public Page<ProductoDTO> obtenerTodosLosProductos(Pageable pageable) {
-        Page<Producto> productosPage = productoRepository.findAll(pageable);
-        return productosPage.map(this::convertirADTO);
+    public Page<ProductoResumenDTO> obtenerTodosLosProductos(Pageable pageable) {
+        return productoRepository.findResumenes(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ProductoResumenDTO> obtenerProductosPorCursor(String cursor, Sort sort, int tamano) {
+        CursorPaginacion.Cursor posicion = CursorPaginacion.leer(cursor, sort, ORDEN_CATALOGO, ORDENES_CATALOGO);
+        // El scroll keyset necesita las entidades para leer la posición de cada fila; la
+        // transacción de solo lectura las carga sin instantáneas para dirty checking
+        return CursorPaginacion.pagina(productoRepository
+                .findAllBy(posicion.posicion(), posicion.orden(), CursorPaginacion.limite(tamano))
+                .map(productoMapper::toResumenDto), posicion.orden());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductoResumenDTO> obtenerProductosSinTotal(Pageable pageable) {
+        return productoRepository.findResumenesSinTotal(pageable);
     }
 
     @Override
-    public Page<ProductoDTO> buscarProductos(String termino, Pageable pageable) {
-        Page<Producto> productosPage = productoRepository.findByNombreContainingIgnoreCaseOrDescripcionContainingIgnoreCase(
-                termino, termino, pageable);
-        return productosPage.map(this::convertirADTO);
+    @Transactional(readOnly = true)
+    public Page<ProductoResumenDTO> buscarProductos(String termino, Pageable pageable) {
+        if (!productoSearchIndex.estaListo()) {
+            // El índice aún se está construyendo: recurrir a la búsqueda en base de datos
+            return productoRepository.findResumenesPorTexto(termino, pageable);
+        }
+
+        // El índice devuelve los IDs ya ordenados; solo se cargan los de la página solicitada
+        List<Long> ids = productoSearchIndex.buscar(termino, pageable.getSort());
+        return new PageImpl<>(cargarPagina(ids, pageable), pageable, ids.size());
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "productosPorCategoria", key = "#categoria.name() + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public Page<ProductoDTO> obtenerProductosPorCategoria(@NotNull Categoria categoria, Pageable pageable) {
-        Page<Producto> productosPage = productoRepository.findByCategoriaAndActivoTrue(categoria, pageable);
-        return productosPage.map(this::convertirADTO);
+    public CatalogoFacetadoDTO filtrarCatalogo(@NotNull FiltroCatalogoDTO filtro, Pageable pageable) {
+        // Con el índice listo el texto se convierte en IDs ordenados por relevancia, y la consulta
+        // filtra por clave primaria; si no, la base de datos filtra el texto con LIKE
+        List<Long> idsPorTexto = null;
+        if (StringUtils.hasText(filtro.getTexto()) && productoSearchIndex.estaListo()) {
+            idsPorTexto = productoSearchIndex.buscar(filtro.getTexto(), Sort.unsorted());
+        }
+
+        // Sobre el catálogo activo, filtros, facetas y orden se resuelven con el índice de bits en
+        // memoria y solo se consultan los productos de la página por clave primaria
+        Optional<ProductoAtributosIndex.Resultado> enMemoria =
+                productoAtributosIndex.filtrar(filtro, idsPorTexto, pageable.getSort());
+        if (enMemoria.isPresent()) {
+            List<Long> ids = enMemoria.get().ids();
+            List<ProductoResumenDTO> contenido = cargarPagina(ids, pageable);
+            return new CatalogoFacetadoDTO(new PageImpl<>(contenido, pageable, ids.size()), enMemoria.get().facetas());
+        }
+        return productoRepository.filtrarCatalogo(filtro, idsPorTexto, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "productosPorCategoria", key = "#categoria.name() + '_' + #pageable")
+    public Page<ProductoResumenDTO> obtenerProductosPorCategoria(@NotNull Categoria categoria, Pageable pageable) {
+        return productoRepository.findResumenesPorCategoria(categoria, pageable);
     }
     
     @Override
@@ -146,12 +271,16 @@ public class ProductoServiceImpl implements ProductoService {
         producto.setFechaActualizacion(LocalDateTime.now());
         
         Producto productoActualizado = productoRepository.save(producto);
+        registrarCambioStock(List.of(id));
         return convertirADTO(productoActualizado);
     }
     
     @Override
     @Transactional
-    @CacheEvict(value = {"producto", "productos", "productosDestacados"}, key = "#id")
+    @Caching(evict = {
+        @CacheEvict(cacheNames = "producto", key = "#id"),
+        @CacheEvict(cacheNames = {"productos", "productosPorCategoria", "productosOferta"}, allEntries = true)
+    })
     public ProductoDTO subirImagen(@NotNull Long id, @NotNull MultipartFile imagen) {
         Objects.requireNonNull(imagen, "El archivo de imagen no puede ser nulo");
         
@@ -201,6 +330,15 @@ public class ProductoServiceImpl implements ProductoService {
                 
                 // Guardar los cambios
                 producto = productoRepository.save(producto);
+                Producto productoGuardado = producto;
+                versionCatalogo.registrarCambio(List.of(id));
+                alConfirmar(() -> {
+                    // Las tarjetas de destacados y relacionados muestran la imagen
+                    productosRelacionados.indexar(productoGuardado);
+                    if (esDestacado(productoGuardado)) {
+                        productosDestacados.refrescar();
+                    }
+                });
                 return convertirADTO(producto);
             }
             
@@ -214,9 +352,22 @@ public class ProductoServiceImpl implements ProductoService {
     }
     
     @Override
-    @Transactional(readOnly = true)
-    @Cacheable(value = "productosDestacados", key = "#limite")
-    public List<ProductoDTO> obtenerProductosDestacados(@NotNull Integer limite) {
+    public List<ProductoResumenDTO> obtenerProductosRelacionados(@NotNull Long id, @NotNull Integer limite) {
+        if (limite <= 0) {
+            throw new IllegalArgumentException("El límite debe ser un número positivo");
+        }
+        return productosRelacionados.obtener(id, limite).orElseGet(() -> productoRepository.findById(id)
+                // Aún sin precalcular: misma categoría, excluyendo el propio producto
+                .map(producto -> productoRepository.findResumenesPorCategoria(producto.getCategoria(),
+                                PageRequest.of(0, limite + 1)).stream()
+                        .filter(relacionado -> !relacionado.getId().equals(id))
+                        .limit(limite)
+                        .collect(Collectors.toList()))
+                .orElseGet(Collections::emptyList));
+    }
+
+    @Override
+    public List<ProductoResumenDTO> obtenerProductosDestacados(@NotNull Integer limite) {
         Objects.requireNonNull(limite, "El límite no puede ser nulo");
         
         // Validar que el límite sea un número positivo
@@ -224,46 +375,15 @@ public class ProductoServiceImpl implements ProductoService {
             throw new IllegalArgumentException("El límite debe ser un número positivo");
         }
         
-        // Limitar el máximo de productos a devolver
-        final int MAX_PRODUCTOS = 50; // Límite máximo razonable
-        int limiteFinal = Math.min(limite, MAX_PRODUCTOS);
-        
-        try {
-            // Obtener productos destacados ordenados por fecha de creación descendente
-            List<Producto> productos = productoRepository.findByDestacadoTrueAndActivoTrueOrderByFechaCreacionDesc();
-            
-            if (productos == null || productos.isEmpty()) {
-                return Collections.emptyList();
-            }
-            
-            // Limitar la cantidad de resultados
-            if (productos.size() > limiteFinal) {
-                productos = productos.subList(0, limiteFinal);
-            }
-            
-            // Convertir a DTOs
-            return productos.stream()
-                    .filter(Objects::nonNull)
-                    .map(this::convertirADTO)
-                    .collect(Collectors.toList());
-                    
-        } catch (Exception e) {
-            log.error("Error al obtener productos destacados", e);
-            return Collections.emptyList();
-        }
+        return productosDestacados.obtener(limite);
     }
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "productosOferta", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
-    public Page<ProductoDTO> obtenerProductosEnOferta(Pageable pageable) {
+    @Cacheable(value = "productosOferta", key = "#pageable")
+    public Page<ProductoResumenDTO> obtenerProductosEnOferta(Pageable pageable) {
         // Buscar productos con descuento mayor a cero y que estén activos
-        Page<Producto> productosPage = productoRepository.findByDescuentoGreaterThanAndActivoTrue(
-            BigDecimal.ZERO, 
-            pageable
-        );
-        
-        return productosPage.map(this::convertirADTO);
+        return productoRepository.findResumenesEnOferta(pageable);
     }
     
     @Override
@@ -282,40 +402,99 @@ public class ProductoServiceImpl implements ProductoService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<ProductoDTO> filtrarPorPrecio(BigDecimal precioMin, BigDecimal precioMax, Pageable pageable) {
+    public Page<ProductoResumenDTO> filtrarPorPrecio(BigDecimal precioMin, BigDecimal precioMax, Pageable pageable) {
         if (precioMin == null && precioMax == null) {
             // Si no se especifican precios, devolver todos los productos
             return obtenerTodosLosProductos(pageable);
         }
-        
-        if (precioMin == null) {
-            // Solo precio máximo
-            return productoRepository.findByPrecioLessThanEqual(precioMax, pageable)
-                    .map(this::convertirADTO);
-        } else if (precioMax == null) {
-            // Solo precio mínimo
-            return productoRepository.findByPrecioGreaterThanEqual(precioMin, pageable)
-                    .map(this::convertirADTO);
-        } else {
-            // Ambos precios especificados
-            if (precioMin.compareTo(precioMax) > 0) {
-                // Si el precio mínimo es mayor que el máximo, intercambiar valores
-                BigDecimal temp = precioMin;
-                precioMin = precioMax;
-                precioMax = temp;
-            }
-            return productoRepository.findByPrecioBetween(precioMin, precioMax, pageable)
-                    .map(this::convertirADTO);
+
+        // Un extremo no especificado deja el rango abierto por ese lado
+        BigDecimal minimo = precioMin != null ? precioMin : BigDecimal.ZERO;
+        BigDecimal maximo = precioMax != null ? precioMax : PRECIO_MAXIMO;
+        if (minimo.compareTo(maximo) > 0) {
+            // Si el precio mínimo es mayor que el máximo, intercambiar valores
+            BigDecimal temp = minimo;
+            minimo = maximo;
+            maximo = temp;
         }
+        return productoRepository.findResumenesPorPrecio(minimo, maximo, pageable);
     }
 
     // Métodos privados de utilidad
+
+    @Override
+    public void registrarCambioStock(@NotNull Collection<Long> ids) {
+        List<Long> afectados = List.copyOf(ids);
+        // Las cachés son transaccionales: estas invalidaciones ya se aplican al confirmar. No pueden
+        // ir dentro de alConfirmar, porque lo que se registra durante afterCommit no llega a ejecutarse
+        Cache productos = cacheManager.getCache("producto");
+        if (productos != null) {
+            afectados.forEach(productos::evict);
+        }
+        CACHES_LISTADOS.stream()
+                .map(cacheManager::getCache)
+                .filter(Objects::nonNull)
+                .forEach(Cache::clear);
+        alConfirmar(() -> {
+            // Las tarjetas de destacados y relacionados también muestran el stock
+            productosRelacionados.actualizarStock(afectados);
+            if (afectados.stream().anyMatch(productosDestacados::contiene)) {
+                productosDestacados.refrescar();
+            }
+        });
+        // Después de la invalidación: al confirmar, las cachés ya están vacías cuando avanza la versión
+        versionCatalogo.registrarCambio(afectados);
+    }
+
+    /**
+     * Carga los resúmenes de la página solicitada de una lista de IDs ya ordenada, con una sola
+     * consulta por clave primaria y conservando el orden de la lista.
+     */
+    private List<ProductoResumenDTO> cargarPagina(List<Long> ids, Pageable pageable) {
+        List<Long> idsPagina = ids;
+        if (pageable.isPaged()) {
+            int desde = (int) Math.min(pageable.getOffset(), ids.size());
+            idsPagina = ids.subList(desde, Math.min(desde + pageable.getPageSize(), ids.size()));
+        }
+        if (idsPagina.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductoResumenDTO> productos = productoRepository.findResumenesPorIds(idsPagina).stream()
+                .collect(Collectors.toMap(ProductoResumenDTO::getId, Function.identity()));
+        return idsPagina.stream()
+                .map(productos::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static boolean esDestacado(Producto producto) {
+        return producto.isDestacado() && producto.isActivo();
+    }
+
+    /**
+     * Ejecuta la acción cuando la transacción actual se confirma, para que el índice de búsqueda
+     * no refleje cambios que terminen en rollback.
+     */
+    private void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+
     private Producto convertirAEntidad(ProductoDTO dto) {
-        return modelMapper.map(dto, Producto.class);
+        return productoMapper.toEntity(dto);
     }
 
     private ProductoDTO convertirADTO(Producto producto) {
-        return modelMapper.map(producto, ProductoDTO.class);
+        return productoMapper.toDto(producto);
     }
 }
 
@@ -3,17 +3,20 @@ package com.example.proyectoProgramacion.service.impl;
 import com.example.proyectoProgramacion.exception.AuthenticationException;
 import com.example.proyectoProgramacion.exception.ResourceNotFoundException;
 import com.example.proyectoProgramacion.exception.BusinessException;
+import com.example.proyectoProgramacion.mapper.UsuarioMapper;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.usuario.CambioPasswordDTO;
 import com.example.proyectoProgramacion.model.dto.usuario.UsuarioDTO;
 import com.example.proyectoProgramacion.model.entity.Usuario;
 import com.example.proyectoProgramacion.repository.UsuarioRepository;
 import com.example.proyectoProgramacion.service.interfaces.UsuarioService;
-import org.modelmapper.ModelMapper;
+import com.example.proyectoProgramacion.util.CursorPaginacion;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,25 +27,28 @@ import lombok.extern.slf4j.Slf4j;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Set;
 
 @Service
 @Validated
 @Slf4j
 public class UsuarioServiceImpl implements UsuarioService {
 
+    // Ordenes admitidos en el listado por cursor, con el ID como desempate
+    private static final Set<String> ORDENES_LISTADO = Set.of("username", "fechaCreacion", "id");
+    private static final Sort ORDEN_LISTADO = Sort.by(Sort.Direction.ASC, "username");
+
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
-    private final ModelMapper modelMapper;
+    private final UsuarioMapper usuarioMapper;
 
     @Autowired
     public UsuarioServiceImpl(UsuarioRepository usuarioRepository, 
                             PasswordEncoder passwordEncoder, 
-                            ModelMapper modelMapper) {
+                            UsuarioMapper usuarioMapper) {
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
-        this.modelMapper = modelMapper;
+        this.usuarioMapper = usuarioMapper;
     }
 
     @Override
@@ -115,7 +121,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {"usuario", "usuarioPorId", "todosUsuarios"}, allEntries = true)
+    @CacheEvict(cacheNames = {"usuario", "usuarioPorId", "todosUsuarios", "estadoCuenta"}, allEntries = true)
     public void desactivarCuenta(@NotBlank String username) {
         Usuario usuario = usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
@@ -128,7 +134,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {"usuario", "usuarioPorId", "todosUsuarios"}, allEntries = true)
+    @CacheEvict(cacheNames = {"usuario", "usuarioPorId", "todosUsuarios", "estadoCuenta"}, allEntries = true)
     public void activarCuenta(@NotBlank String username) {
         Usuario usuario = usuarioRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
@@ -140,15 +146,24 @@ public class UsuarioServiceImpl implements UsuarioService {
     }
 
     @Override
-    @Cacheable(cacheNames = "todosUsuarios", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(cacheNames = "todosUsuarios", key = "#pageable")
     public Page<UsuarioDTO> obtenerTodosLosUsuarios(Pageable pageable) {
         Page<Usuario> usuarios = usuarioRepository.findAll(pageable);
         return usuarios.map(this::convertirADTO);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<UsuarioDTO> obtenerUsuariosPorCursor(String cursor, Sort sort, int tamano) {
+        CursorPaginacion.Cursor posicion = CursorPaginacion.leer(cursor, sort, ORDEN_LISTADO, ORDENES_LISTADO);
+        return CursorPaginacion.pagina(usuarioRepository
+                .findAllBy(posicion.posicion(), posicion.orden(), CursorPaginacion.limite(tamano))
+                .map(this::convertirADTO), posicion.orden());
+    }
     
     @Override
     @Transactional
-    @CacheEvict(cacheNames = {"usuario", "usuarioPorId", "todosUsuarios"}, allEntries = true)
+    @CacheEvict(cacheNames = {"usuario", "usuarioPorId", "todosUsuarios", "estadoCuenta", "usuarioIdPorUsername"}, allEntries = true)
     public void eliminarUsuario(@NotNull Long id) {
         if (!usuarioRepository.existsById(id)) {
             throw new ResourceNotFoundException("Usuario no encontrado con ID: " + id);
@@ -158,7 +173,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     
 
     @Override
-    @Cacheable(cacheNames = "buscarUsuarios", key = "#termino + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(cacheNames = "buscarUsuarios", key = "#termino + '_' + #pageable")
     public Page<UsuarioDTO> buscarUsuarios(String termino, Pageable pageable) {
         try {
             // Si el término de búsqueda está vacío, devolver todos los usuarios
@@ -180,13 +195,6 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     // Método auxiliar para convertir entidad a DTO
     private UsuarioDTO convertirADTO(Usuario usuario) {
-        UsuarioDTO dto = modelMapper.map(usuario, UsuarioDTO.class);
-
-        // Mapear roles y convertir a List<String>
-        List<String> roleNames = new ArrayList<>(usuario.getRoles());
-
-        dto.setRoles(roleNames);
-
-        return dto;
+        return usuarioMapper.toDto(usuario);
     }
 }
@@ -2,15 +2,16 @@ package com.example.proyectoProgramacion.service.interfaces;
 
 import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
 import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.OperacionCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.ResumenCarritoDTO;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.List;
+
 
 @Validated
 public interface CarritoService {
@@ -19,22 +20,16 @@ public interface CarritoService {
      * Fusiona el carrito de sesión con el carrito del usuario autenticado
      * @apiNote Este método limpia automáticamente el carrito de sesión después de la fusión
      */
-    @Retryable(
-            value = { Exception.class },
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 100)
-    )
-    @Transactional(
-            isolation = Isolation.SERIALIZABLE,
-            timeout = 10,
-            rollbackFor = {Exception.class}
-    )
     CarritoDTO fusionarCarritoSesionConUsuario(@NotBlank String nombreUsuario);
 
     // Métodos para usuarios autenticados
     CarritoDTO obtenerCarritoPorUsuario(@NotBlank String nombreUsuario);
 
-    CarritoDTO agregarProductoAlCarrito(@NotBlank String nombreUsuario, @NotNull ItemCarritoDTO item);
+    /**
+     * Agrega un producto al carrito del usuario o incrementa la cantidad de su línea
+     * @return Cantidad de la línea y totales del carrito tras la operación
+     */
+    ResumenCarritoDTO agregarProductoAlCarrito(@NotBlank String nombreUsuario, @NotNull ItemCarritoDTO item);
 
     CarritoDTO actualizarCantidadItem(@NotBlank String nombreUsuario, @NotNull Long itemId, @NotNull Integer cantidad);
 
@@ -44,6 +39,26 @@ public interface CarritoService {
 
     CarritoDTO vaciarCarrito(@NotBlank String nombreUsuario);
 
+    // Variantes por ID del usuario autenticado: evitan resolver el nombre de usuario en cada llamada
+    CarritoDTO obtenerCarritoPorUsuario(@NotNull Long usuarioId);
+
+    ResumenCarritoDTO agregarProductoAlCarrito(@NotNull Long usuarioId, @NotNull ItemCarritoDTO item);
+
+    CarritoDTO actualizarCantidadItem(@NotNull Long usuarioId, @NotNull Long itemId, @NotNull Integer cantidad);
+
+    boolean verificarPropiedadItem(@NotNull Long itemId, @NotNull Long usuarioId);
+
+    CarritoDTO eliminarItemDelCarrito(@NotNull Long usuarioId, @NotNull Long itemId);
+
+    CarritoDTO vaciarCarrito(@NotNull Long usuarioId);
+
+    /**
+     * Aplica en orden una lista de operaciones (agregar, actualizar, eliminar) sobre el carrito
+     * del usuario, en una sola transacción: si alguna falla no se aplica ninguna
+     * @return El carrito resultante
+     */
+    CarritoDTO aplicarOperaciones(@NotNull Long usuarioId, @NotEmpty List<OperacionCarritoDTO> operaciones);
+
     // Métodos para usuarios no autenticados (sesión)
     CarritoDTO obtenerCarritoSesion();
 
@@ -0,0 +1,12 @@
+package com.example.proyectoProgramacion.service.interfaces;
+
+import com.example.proyectoProgramacion.model.dto.admin.EstadisticasDashboardDTO;
+
+public interface DashboardService {
+
+    /**
+     * Obtiene las estadísticas del panel de administración usando solo consultas de conteo y agregación.
+     * @return DTO con totales, ingresos, órdenes por estado y productos con stock bajo
+     */
+    EstadisticasDashboardDTO obtenerEstadisticas();
+}
@@ -1,11 +1,13 @@
 package com.example.proyectoProgramacion.service.interfaces;
 
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenDTO;
 import com.example.proyectoProgramacion.model.dto.orden.OrdenDetalleDTO;
 import com.example.proyectoProgramacion.model.enums.EstadoOrden;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.constraints.NotBlank;
@@ -27,6 +29,15 @@ public interface OrdenService {
      */
     OrdenDTO crearOrden(@NotBlank String nombreUsuario, @NotBlank String direccionEnvio);
 
+    /**
+     * Crea una nueva orden a partir del carrito del usuario autenticado, identificado por su ID
+     * @param usuarioId ID del usuario (no nulo)
+     * @param direccionEnvio dirección de envío (no debe estar en blanco)
+     * @return DTO con la información de la orden creada
+     * @throws IllegalStateException si el carrito está vacío
+     */
+    OrdenDTO crearOrden(@NotNull Long usuarioId, @NotBlank String direccionEnvio);
+
     /**
      * Obtiene una orden por su ID
      * @param ordenId ID de la orden (debe ser positivo)
@@ -35,6 +46,14 @@ public interface OrdenService {
      */
     OrdenDTO obtenerOrdenPorId(@NotNull @Positive Long ordenId);
 
+    /**
+     * Obtiene una orden por su número, el identificador que se muestra al cliente
+     * @param numero número de la orden (no debe estar en blanco)
+     * @return DTO con la información de la orden
+     * @throws com.example.proyectoProgramacion.exception.ResourceNotFoundException si la orden no existe
+     */
+    OrdenDTO obtenerOrdenPorNumero(@NotBlank String numero);
+
     /**
      * Obtiene todas las órdenes de un usuario
      * @param nombreUsuario nombre del usuario (no debe estar en blanco)
@@ -44,15 +63,43 @@ public interface OrdenService {
      */
     Page<OrdenDTO> obtenerOrdenesPorUsuario(@NotBlank String nombreUsuario, @NotNull Pageable pageable);
 
+    /**
+     * Obtiene todas las órdenes de un usuario identificado por su ID
+     * @param usuarioId ID del usuario (no nulo)
+     * @param pageable información de paginación (no nulo)
+     * @return Página con las órdenes del usuario
+     */
+    Page<OrdenDTO> obtenerOrdenesPorUsuario(@NotNull Long usuarioId, @NotNull Pageable pageable);
+
+    /**
+     * Obtiene las órdenes de un usuario paginadas por cursor, sin OFFSET ni conteo
+     * @param usuarioId ID del usuario (no nulo)
+     * @param cursor token de la página anterior, o nulo para la primera
+     * @param sort orden solicitado (fechaCreacion, total o id); se ignora si llega un cursor
+     * @param tamano número de órdenes por página
+     * @return Página con las órdenes y el cursor de la siguiente
+     */
+    PaginaCursorDTO<OrdenDTO> obtenerOrdenesPorUsuarioPorCursor(@NotNull Long usuarioId, String cursor,
+                                                                @NotNull Sort sort, int tamano);
+
     /**
      * Obtiene todas las órdenes con paginación
      * @param pageable información de paginación (no nulo)
      * @return Página con todas las órdenes
-     * @cacheable Los resultados se almacenan en caché con la clave 'todasOrdenes_<página>_<tamaño>'
+     * @cacheable Los resultados se almacenan en caché con la clave '<paginación>' (página, tamaño y orden)
      */
-    @Cacheable(cacheNames = "todasOrdenes", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(cacheNames = "todasOrdenes", key = "#pageable")
     Page<OrdenDTO> obtenerTodasLasOrdenes(@NotNull Pageable pageable);
 
+    /**
+     * Obtiene todas las órdenes paginadas por cursor, sin OFFSET ni conteo
+     * @param cursor token de la página anterior, o nulo para la primera
+     * @param sort orden solicitado (fechaCreacion, total o id); se ignora si llega un cursor
+     * @param tamano número de órdenes por página
+     * @return Página con las órdenes y el cursor de la siguiente
+     */
+    PaginaCursorDTO<OrdenDTO> obtenerTodasLasOrdenesPorCursor(String cursor, @NotNull Sort sort, int tamano);
+
     /**
      * Busca órdenes por nombre de usuario (alias de obtenerOrdenesPorUsuario)
      * @param username nombre de usuario (no debe estar en blanco)
@@ -86,6 +133,16 @@ public interface OrdenService {
      */
     OrdenDTO cancelarOrden(@NotNull @Positive Long ordenId, @NotBlank String nombreUsuario);
 
+    /**
+     * Cancela una orden del usuario identificado por su ID
+     * @param ordenId ID de la orden (debe ser positivo)
+     * @param usuarioId ID del usuario (no nulo)
+     * @return DTO con la información de la orden cancelada
+     * @throws jakarta.persistence.EntityNotFoundException si la orden no existe
+     * @throws IllegalStateException si la orden no puede ser cancelada o no pertenece al usuario
+     */
+    OrdenDTO cancelarOrden(@NotNull @Positive Long ordenId, @NotNull Long usuarioId);
+
     /**
      * Busca órdenes por diferentes criterios
      * @param estado estado de la orden (opcional)
@@ -107,6 +164,15 @@ public interface OrdenService {
      */
     boolean verificarPropiedadOrden(@NotNull @Positive Long ordenId, @NotBlank String nombreUsuario);
 
+    /**
+     * Verifica si una orden pertenece al usuario identificado por su ID
+     * @param ordenId ID de la orden (debe ser positivo)
+     * @param usuarioId ID del usuario (no nulo)
+     * @return true si la orden pertenece al usuario, false en caso contrario
+     * @throws jakarta.persistence.EntityNotFoundException si la orden no existe
+     */
+    boolean verificarPropiedadOrden(@NotNull @Positive Long ordenId, @NotNull Long usuarioId);
+
     /**
      * Obtiene los detalles de una orden
      * @param ordenId ID de la orden (debe ser positivo)
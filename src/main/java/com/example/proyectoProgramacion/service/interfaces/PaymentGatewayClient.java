@@ -6,8 +6,6 @@ import jakarta.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -33,11 +31,6 @@ public abstract class PaymentGatewayClient implements PaymentGatewayService {
     /**
      * {@inheritDoc}
      */
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000)
-    )
     @Override
     public Map<String, Object> procesarPago(@NotNull @Valid Map<String, Object> datosPago) {
         log.info("Procesando pago con datos: {}", datosPago);
@@ -99,11 +92,6 @@ public abstract class PaymentGatewayClient implements PaymentGatewayService {
     /**
      * {@inheritDoc}
      */
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000)
-    )
     @Override
     public Map<String, Object> procesarReembolso(
             @NotBlank String idPago,
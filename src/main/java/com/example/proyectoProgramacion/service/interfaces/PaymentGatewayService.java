@@ -3,14 +3,14 @@ package com.example.proyectoProgramacion.service.interfaces;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 
 import java.math.BigDecimal;
 import java.util.Map;
 
 /**
- * Interfaz para el servicio de pasarela de pagos
+ * Interfaz para el servicio de pasarela de pagos.
+ * Los pagos y reembolsos no se reintentan automáticamente: no son idempotentes y repetirlos tras
+ * un error o un timeout podría cobrar o reembolsar dos veces.
  */
 public interface PaymentGatewayService {
     /**
@@ -61,11 +61,6 @@ public interface PaymentGatewayService {
      * @param datosPago mapa con los datos del pago
      * @return resultado del procesamiento del pago
      */
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000)
-    )
     Map<String, Object> procesarPago(@NotNull @Valid Map<String, Object> datosPago);
 
     /**
@@ -81,20 +76,10 @@ public interface PaymentGatewayService {
      * @param monto monto a reembolsar
      * @return información del reembolso procesado
      */
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000)
-    )
     Map<String, Object> procesarReembolsoMonto(
             @NotBlank String idPago,
             @NotNull BigDecimal monto);
 
-    @Retryable(
-            value = {RuntimeException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000)
-    )
     Map<String, Object> procesarReembolso(
             @NotBlank String idPago,
             @NotNull BigDecimal monto);
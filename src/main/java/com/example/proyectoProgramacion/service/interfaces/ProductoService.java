@@ -1,10 +1,16 @@
 package com.example.proyectoProgramacion.service.interfaces;
 
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
+import com.example.proyectoProgramacion.model.dto.producto.CatalogoFacetadoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
 import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoResumenDTO;
 import com.example.proyectoProgramacion.model.enums.Categoria;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -13,6 +19,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -48,23 +55,47 @@ public interface ProductoService {
     ProductoDTO obtenerProductoPorId(@NotNull Long id);
 
     /**
-     * Obtiene todos los productos con paginación
+     * Obtiene un producto leyéndolo de la base de datos, sin pasar por la caché; para construir
+     * validadores HTTP que deben corresponder al estado confirmado
+     * @param id ID del producto
+     * @return DTO con la información del producto
+     */
+    ProductoDTO obtenerProductoActual(@NotNull Long id);
+
+    /**
+     * Obtiene todos los productos con paginación, con los datos de las tarjetas del listado
      * @param pageable información de paginación
      * @return Página con todos los productos
      * @cacheable Los resultados se almacenan en caché con la clave 'productos'
      */
-    @Cacheable(value = "productos", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
-    Page<ProductoDTO> obtenerTodosLosProductos(Pageable pageable);
+    @Cacheable(value = "productos", key = "#pageable")
+    Page<ProductoResumenDTO> obtenerTodosLosProductos(Pageable pageable);
+
+    /**
+     * Obtiene el catálogo paginado por cursor; cada página cuesta lo mismo que la primera
+     * @param cursor token de la página anterior, o nulo para la primera
+     * @param sort orden solicitado (nombre, precio, fechaCreacion o id); se ignora si llega un cursor
+     * @param tamano número de productos por página
+     * @return Página con los productos y el cursor de la siguiente
+     */
+    PaginaCursorDTO<ProductoResumenDTO> obtenerProductosPorCursor(String cursor, @NotNull Sort sort, int tamano);
+
+    /**
+     * Obtiene una página del catálogo sin calcular el total de productos
+     * @param pageable información de paginación
+     * @return Porción de productos e indicación de si hay más
+     */
+    Slice<ProductoResumenDTO> obtenerProductosSinTotal(@NotNull Pageable pageable);
 
     /**
      * Obtiene productos por categoría
      * @param categoria categoría de los productos a buscar
      * @param pageable información de paginación
      * @return Página con los productos de la categoría
-     * @cacheable Los resultados se almacenan en caché con la clave 'productosPorCategoria_<categoria>_<página>_<tamaño>'
+     * @cacheable Los resultados se almacenan en caché con la clave '<categoria>_<paginación>'
      */
-    @Cacheable(value = "productosPorCategoria", key = "#categoria.name() + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    Page<ProductoDTO> obtenerProductosPorCategoria(@NotNull Categoria categoria, Pageable pageable);
+    @Cacheable(value = "productosPorCategoria", key = "#categoria.name() + '_' + #pageable")
+    Page<ProductoResumenDTO> obtenerProductosPorCategoria(@NotNull Categoria categoria, Pageable pageable);
 
     /**
      * Obtiene productos por ID de categoría (obsoleto, usar obtenerProductosPorCategoria en su lugar)
@@ -74,7 +105,7 @@ public interface ProductoService {
      * @deprecated Usar {@link #obtenerProductosPorCategoria(Categoria, Pageable)} en su lugar
      */
     @Deprecated(since = "1.0", forRemoval = true)
-    default Page<ProductoDTO> obtenerProductosPorCategoriaId(@NotNull String categoriaId, Pageable pageable) {
+    default Page<ProductoResumenDTO> obtenerProductosPorCategoriaId(@NotNull String categoriaId, Pageable pageable) {
         try {
             Categoria categoria = Categoria.valueOf(categoriaId.toUpperCase());
             return obtenerProductosPorCategoria(categoria, pageable);
@@ -89,7 +120,7 @@ public interface ProductoService {
      * @param pageable información de paginación
      * @return Página con los productos que coinciden con el término de búsqueda
      */
-    Page<ProductoDTO> buscarProductos(@NotBlank String termino, Pageable pageable);
+    Page<ProductoResumenDTO> buscarProductos(@NotBlank String termino, Pageable pageable);
 
     /**
      * Filtra productos por rango de precios
@@ -98,7 +129,16 @@ public interface ProductoService {
      * @param pageable información de paginación
      * @return Página con los productos que cumplen con el rango de precios
      */
-    Page<ProductoDTO> filtrarPorPrecio(BigDecimal precioMin, BigDecimal precioMax, Pageable pageable);
+    Page<ProductoResumenDTO> filtrarPorPrecio(BigDecimal precioMin, BigDecimal precioMax, Pageable pageable);
+
+    /**
+     * Filtra el catálogo combinando texto, categoría, rango de precios, tipo de prenda, franquicia,
+     * talla, color y estado, y devuelve los recuentos por faceta en la misma operación
+     * @param filtro filtros a aplicar; los vacíos se ignoran
+     * @param pageable información de paginación; sin orden y con texto se ordena por relevancia
+     * @return Página de productos y recuentos por faceta
+     */
+    CatalogoFacetadoDTO filtrarCatalogo(@NotNull FiltroCatalogoDTO filtro, Pageable pageable);
 
     /**
      * Obtiene productos por nombre de categoría
@@ -118,6 +158,14 @@ public interface ProductoService {
     ProductoDTO actualizarStock(@NotNull @Positive Long id, @NotNull @Positive Integer cantidad)
             throws IllegalArgumentException;
 
+    /**
+     * Registra un cambio de stock hecho fuera de este servicio (reservas y reposiciones de las
+     * órdenes). Al confirmar la transacción en curso se invalidan las cachés de productos, se
+     * actualizan las tarjetas de destacados y relacionados y avanza la versión del catálogo
+     * @param ids IDs de los productos cuyo stock cambió
+     */
+    void registrarCambioStock(@NotNull Collection<Long> ids);
+
     /**
      * Sube una imagen para un producto
      * @param id ID del producto (debe ser positivo)
@@ -129,24 +177,33 @@ public interface ProductoService {
             throws IllegalArgumentException;
 
     /**
-     * Obtiene productos destacados
-     * @param limite número máximo de productos a retornar (debe ser mayor a 0)
-     * @return Lista de productos destacados
+     * Obtiene los productos relacionados con uno dado desde las listas precalculadas: misma
+     * categoría, priorizando la misma franquicia y el mismo tipo de prenda
+     * @param id ID del producto
+     * @param limite número máximo de productos a retornar (debe ser mayor a 0, como máximo 8)
+     * @return Lista de productos relacionados; vacía si el producto no está activo
+     * @throws IllegalArgumentException si el límite es menor o igual a 0
+     */
+    List<ProductoResumenDTO> obtenerProductosRelacionados(@NotNull Long id, @NotNull @Positive Integer limite)
+            throws IllegalArgumentException;
+
+    /**
+     * Obtiene productos destacados desde la lista precalculada, sin consultar la base de datos
+     * @param limite número máximo de productos a retornar (debe ser mayor a 0, como máximo 50)
+     * @return Lista de productos destacados, los más recientes primero
      * @throws IllegalArgumentException si el límite es menor o igual a 0
-     * @cacheable Los resultados se almacenan en caché con la clave 'productosDestacados_<limite>'
      */
-    @Cacheable(value = "productosDestacados", key = "#limite")
-    List<ProductoDTO> obtenerProductosDestacados(@NotNull @Positive Integer limite)
+    List<ProductoResumenDTO> obtenerProductosDestacados(@NotNull @Positive Integer limite)
             throws IllegalArgumentException;
 
     /**
      * Obtiene productos en oferta con paginación
      * @param pageable información de paginación
      * @return Página con los productos en oferta
-     * @cacheable Los resultados se almacenan en caché con la clave 'productosOferta_<página>_<tamaño>'
+     * @cacheable Los resultados se almacenan en caché con la clave '<paginación>' (página, tamaño y orden)
      */
-    @Cacheable(value = "productosOferta", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
-    Page<ProductoDTO> obtenerProductosEnOferta(Pageable pageable);
+    @Cacheable(value = "productosOferta", key = "#pageable")
+    Page<ProductoResumenDTO> obtenerProductosEnOferta(Pageable pageable);
     
     /**
      * Cuenta la cantidad de productos activos en el sistema
@@ -1,10 +1,12 @@
 package com.example.proyectoProgramacion.service.interfaces;
 
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
 import com.example.proyectoProgramacion.model.dto.usuario.CambioPasswordDTO;
 import com.example.proyectoProgramacion.model.dto.usuario.UsuarioDTO;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.validation.Valid;
@@ -63,9 +65,18 @@ public interface UsuarioService {
      * @return Página con todos los usuarios
      * @cacheable Los resultados se almacenan en caché con la clave 'todosUsuarios'
      */
-    @Cacheable(cacheNames = "todosUsuarios", key = "#pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(cacheNames = "todosUsuarios", key = "#pageable")
     Page<UsuarioDTO> obtenerTodosLosUsuarios(Pageable pageable);
 
+    /**
+     * Obtiene los usuarios paginados por cursor, sin OFFSET ni conteo
+     * @param cursor token de la página anterior, o nulo para la primera
+     * @param sort orden solicitado (username, fechaCreacion o id); se ignora si llega un cursor
+     * @param tamano número de usuarios por página
+     * @return Página con los usuarios y el cursor de la siguiente
+     */
+    PaginaCursorDTO<UsuarioDTO> obtenerUsuariosPorCursor(String cursor, @NotNull Sort sort, int tamano);
+
     /**
      * Busca usuarios por término de búsqueda
      * @param termino término de búsqueda
@@ -0,0 +1,179 @@
+package com.example.proyectoProgramacion.util;
+
+import com.example.proyectoProgramacion.exception.BusinessException;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Utilidad para la paginación por cursor (keyset) sobre {@link Window} de Spring Data.
+ * <p>El cursor que recibe el cliente es un token opaco en Base64 URL con el orden del listado y los
+ * valores de la última fila devuelta (clave de orden e ID). La consulta siguiente filtra a partir
+ * de esos valores en lugar de usar OFFSET, y nunca ejecuta {@code count(*)}.</p>
+ */
+public final class CursorPaginacion {
+
+    /** Tamaño de página máximo admitido en los listados por cursor. */
+    public static final int TAMANO_MAXIMO = 100;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String CURSOR_INVALIDO = "El cursor de paginación no es válido";
+
+    private CursorPaginacion() {
+    }
+
+    /**
+     * Orden y posición desde la que continuar un listado.
+     *
+     * @param orden Orden del listado (sin el ID, que Spring Data añade como desempate)
+     * @param posicion Posición keyset; inicial si no se recibió cursor
+     */
+    public record Cursor(Sort orden, KeysetScrollPosition posicion) {
+    }
+
+    // Contenido serializado del token
+    private record Token(List<String> orden, Map<String, List<String>> claves) {
+    }
+
+    /**
+     * Interpreta el cursor recibido. Sin cursor se usa el orden solicitado, limitado a las
+     * propiedades permitidas; con cursor, el orden viaja en el propio token.
+     *
+     * @param token Cursor recibido del cliente, o nulo para la primera página
+     * @param solicitado Orden pedido por el cliente
+     * @param porDefecto Orden cuando no se pide ninguno válido
+     * @param permitidas Propiedades por las que se puede ordenar el listado
+     * @return Orden y posición desde la que continuar
+     * @throws BusinessException si el cursor no es válido
+     */
+    public static Cursor leer(String token, Sort solicitado, Sort porDefecto, Set<String> permitidas) {
+        if (token == null || token.isBlank()) {
+            return new Cursor(filtrarOrden(solicitado, porDefecto, permitidas), ScrollPosition.keyset());
+        }
+        try {
+            Token contenido = JSON.readValue(Base64.getUrlDecoder().decode(token), Token.class);
+
+            List<Sort.Order> ordenes = new ArrayList<>();
+            for (String orden : contenido.orden()) {
+                String[] partes = orden.split(":", 2);
+                if (!permitidas.contains(partes[0])) {
+                    throw new BusinessException(CURSOR_INVALIDO);
+                }
+                ordenes.add(new Sort.Order(Sort.Direction.fromString(partes[1]), partes[0]));
+            }
+
+            // Las claves deben ser exactamente las del orden más el ID de desempate; si no, la
+            // consulta keyset fallaría dentro de Spring Data
+            Set<String> esperadas = new HashSet<>();
+            ordenes.forEach(o -> esperadas.add(o.getProperty()));
+            esperadas.add("id");
+            if (!esperadas.equals(contenido.claves().keySet())) {
+                throw new BusinessException(CURSOR_INVALIDO);
+            }
+
+            Map<String, Object> claves = new LinkedHashMap<>();
+            contenido.claves().forEach((propiedad, valor) -> claves.put(propiedad, leerValor(valor)));
+            return new Cursor(Sort.by(ordenes), ScrollPosition.forward(claves));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new BusinessException(CURSOR_INVALIDO);
+        }
+    }
+
+    /**
+     * Límite de filas para un tamaño de página pedido por el cliente.
+     *
+     * @param tamano Tamaño solicitado
+     * @return Límite entre 1 y {@link #TAMANO_MAXIMO}
+     */
+    public static Limit limite(int tamano) {
+        return Limit.of(Math.max(1, Math.min(tamano, TAMANO_MAXIMO)));
+    }
+
+    /**
+     * Construye la página de respuesta y el cursor de la siguiente a partir de la última fila.
+     *
+     * @param ventana Resultado de la consulta keyset, ya convertido a DTO
+     * @param orden Orden del listado, el mismo devuelto por {@link #leer}
+     * @return Página con su cursor
+     */
+    public static <T> PaginaCursorDTO<T> pagina(Window<T> ventana, Sort orden) {
+        String siguiente = null;
+        if (ventana.hasNext() && !ventana.isEmpty()) {
+            siguiente = codificar(orden, (KeysetScrollPosition) ventana.positionAt(ventana.size() - 1));
+        }
+        return new PaginaCursorDTO<>(ventana.getContent(), siguiente, siguiente != null);
+    }
+
+    private static String codificar(Sort orden, KeysetScrollPosition posicion) {
+        List<String> ordenes = new ArrayList<>();
+        orden.forEach(o -> ordenes.add(o.getProperty() + ":" + o.getDirection().name()));
+
+        Map<String, List<String>> claves = new LinkedHashMap<>();
+        posicion.getKeys().forEach((propiedad, valor) -> claves.put(propiedad, escribirValor(valor)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(JSON.writeValueAsBytes(new Token(ordenes, claves)));
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo generar el cursor de paginación", e);
+        }
+    }
+
+    private static Sort filtrarOrden(Sort solicitado, Sort porDefecto, Set<String> permitidas) {
+        List<Sort.Order> ordenes = solicitado.stream()
+                .filter(o -> permitidas.contains(o.getProperty()))
+                .toList();
+        return ordenes.isEmpty() ? porDefecto : Sort.by(ordenes);
+    }
+
+    // Los valores se guardan con su tipo para volver a enlazarlos igual en la consulta
+    private static List<String> escribirValor(Object valor) {
+        if (valor instanceof Long) {
+            return List.of("L", valor.toString());
+        }
+        if (valor instanceof Integer) {
+            return List.of("I", valor.toString());
+        }
+        if (valor instanceof BigDecimal) {
+            return List.of("D", valor.toString());
+        }
+        if (valor instanceof LocalDateTime) {
+            return List.of("F", valor.toString());
+        }
+        if (valor instanceof String) {
+            return List.of("S", valor.toString());
+        }
+        throw new IllegalStateException("Tipo no soportado en el cursor de paginación: " + valor.getClass());
+    }
+
+    private static Object leerValor(List<String> valor) {
+        String texto = valor.get(1);
+        if (texto == null) {
+            throw new BusinessException(CURSOR_INVALIDO);
+        }
+        return switch (valor.get(0)) {
+            case "L" -> Long.valueOf(texto);
+            case "I" -> Integer.valueOf(texto);
+            case "D" -> new BigDecimal(texto);
+            case "F" -> LocalDateTime.parse(texto);
+            case "S" -> texto;
+            default -> throw new BusinessException(CURSOR_INVALIDO);
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.proyectoProgramacion.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidad para normalizar y tokenizar texto en español antes de indexarlo o buscarlo.
+ * Elimina tildes y diéresis, pasa a minúsculas, descarta palabras vacías y reduce plurales
+ * simples, de modo que "Camisetas Algodón" y "camiseta algodon" producen los mismos términos.
+ */
+public final class NormalizadorTexto {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "o", "para", "por", "sin", "su", "un", "una", "unos", "unas", "y");
+
+    private NormalizadorTexto() {
+    }
+
+    /**
+     * Pasa el texto a minúsculas y elimina tildes y diéresis (la ñ se conserva como n).
+     *
+     * @param texto Texto a normalizar
+     * @return Texto normalizado, o cadena vacía si es nulo
+     */
+    public static String normalizar(String texto) {
+        if (texto == null || texto.isEmpty()) {
+            return "";
+        }
+        String descompuesto = Normalizer.normalize(texto, Normalizer.Form.NFD);
+        return MARCAS_DIACRITICAS.matcher(descompuesto).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Divide el texto en términos normalizados, sin palabras vacías y en singular.
+     *
+     * @param texto Texto a tokenizar
+     * @return Lista de términos en el orden en que aparecen (puede contener repetidos)
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String palabra : SEPARADORES.split(normalizar(texto))) {
+            if (palabra.isEmpty() || PALABRAS_VACIAS.contains(palabra)) {
+                continue;
+            }
+            terminos.add(singular(palabra));
+        }
+        return terminos;
+    }
+
+    /**
+     * Reducción de plurales regulares: "pantalones" -> "pantalon", "camisetas" -> "camiseta".
+     */
+    private static String singular(String palabra) {
+        int longitud = palabra.length();
+        if (longitud > 4 && palabra.endsWith("es") && !esVocal(palabra.charAt(longitud - 3))) {
+            return palabra.substring(0, longitud - 2);
+        }
+        if (longitud > 3 && palabra.endsWith("s") && !palabra.endsWith("ss")) {
+            return palabra.substring(0, longitud - 1);
+        }
+        return palabra;
+    }
+
+    private static boolean esVocal(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
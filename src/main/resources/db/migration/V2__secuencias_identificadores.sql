@@ -0,0 +1,23 @@
+-- Secuencias con incremento 50 para las entidades que pasan de IDENTITY a SEQUENCE
+-- (allocationSize = 50 en @SequenceGenerator). En una base existente cada secuencia arranca
+-- por encima del mayor ID ya asignado; en una base vacía las tablas aún no existen y se crean
+-- después con ddl-auto.
+DO $$
+DECLARE
+    s RECORD;
+BEGIN
+    FOR s IN SELECT * FROM (VALUES
+            ('productos', 'productos_seq'),
+            ('items_carrito', 'items_carrito_seq'),
+            ('ordenes', 'ordenes_seq'),
+            ('detalles_orden', 'detalles_orden_seq'),
+            ('pagos', 'pagos_seq')) AS v (tabla, secuencia)
+    LOOP
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH 1 INCREMENT BY 50', s.secuencia);
+        IF to_regclass(s.tabla) IS NOT NULL THEN
+            EXECUTE format('SELECT setval(%L, (SELECT COALESCE(MAX(id), 0) + 50 FROM %I), false)',
+                    s.secuencia, s.tabla);
+        END IF;
+    END LOOP;
+END
+$$;
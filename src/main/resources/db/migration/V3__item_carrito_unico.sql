@@ -0,0 +1,41 @@
+-- Restricción única (carrito_id, producto_id) en la que se apoya el upsert de líneas del carrito
+-- (ON CONFLICT). Hibernate solo la crea con ddl-auto y, si hay líneas duplicadas, falla sin
+-- detener el arranque; aquí se fusionan antes los duplicados (se conserva la línea más antigua
+-- con la suma de las cantidades) y se crea la restricción. En una base vacía la tabla aún no
+-- existe y ddl-auto la crea ya con la restricción.
+DO $$
+BEGIN
+    IF to_regclass('items_carrito') IS NULL THEN
+        RETURN;
+    END IF;
+
+    CREATE TEMPORARY TABLE items_carrito_fusion ON COMMIT DROP AS
+    SELECT MIN(id) AS id, carrito_id, producto_id, SUM(cantidad) AS cantidad
+    FROM items_carrito
+    GROUP BY carrito_id, producto_id
+    HAVING COUNT(*) > 1;
+
+    IF EXISTS (SELECT 1 FROM items_carrito_fusion) THEN
+        DELETE FROM items_carrito i
+        USING items_carrito_fusion f
+        WHERE i.carrito_id = f.carrito_id
+          AND i.producto_id = f.producto_id
+          AND i.id <> f.id;
+
+        UPDATE items_carrito i
+        SET cantidad = f.cantidad,
+            subtotal = i.precio_unitario * f.cantidad
+        FROM items_carrito_fusion f
+        WHERE i.id = f.id;
+
+        UPDATE carritos c
+        SET total = (SELECT COALESCE(SUM(subtotal), 0) FROM items_carrito WHERE carrito_id = c.id)
+        WHERE c.id IN (SELECT carrito_id FROM items_carrito_fusion);
+    END IF;
+
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_item_carrito_producto') THEN
+        ALTER TABLE items_carrito
+            ADD CONSTRAINT uk_item_carrito_producto UNIQUE (carrito_id, producto_id);
+    END IF;
+END
+$$;
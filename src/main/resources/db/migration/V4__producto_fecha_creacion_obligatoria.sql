@@ -0,0 +1,17 @@
+-- La fecha de creación es la clave por defecto del listado de productos por cursor (keyset), que
+-- no admite nulos: una fila con fecha nula quedaría fuera de las comparaciones. Se completan las
+-- fechas que falten con la de actualización (o la actual) y la columna pasa a ser obligatoria.
+-- En una base vacía la tabla aún no existe y ddl-auto la crea ya con la columna NOT NULL.
+DO $$
+BEGIN
+    IF to_regclass('productos') IS NULL THEN
+        RETURN;
+    END IF;
+
+    UPDATE productos
+    SET fecha_creacion = COALESCE(fecha_actualizacion, now())
+    WHERE fecha_creacion IS NULL;
+
+    ALTER TABLE productos ALTER COLUMN fecha_creacion SET NOT NULL;
+END
+$$;
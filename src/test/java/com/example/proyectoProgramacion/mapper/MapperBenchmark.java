@@ -0,0 +1,145 @@
+package com.example.proyectoProgramacion.mapper;
+
+import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.producto.ProductoDTO;
+import com.example.proyectoProgramacion.model.entity.Carrito;
+import com.example.proyectoProgramacion.model.entity.ItemCarrito;
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.model.entity.Usuario;
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el mapeo reflexivo de ModelMapper (configuración STRICT que usaban los servicios)
+ * con los mappers generados por MapStruct en los dos casos más frecuentes:
+ * una página de catálogo de 24 productos y un carrito de 10 ítems.
+ * Ejecutar con {@code mvn test-compile} y después el método {@link #main(String[])} desde el IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int PRODUCTOS_POR_PAGINA = 24;
+    private static final int ITEMS_POR_CARRITO = 10;
+
+    private ModelMapper modelMapper;
+    private List<Producto> productos;
+    private Carrito carrito;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT)
+                .setSkipNullEnabled(true);
+
+        productos = new ArrayList<>();
+        for (long i = 1; i <= PRODUCTOS_POR_PAGINA; i++) {
+            productos.add(crearProducto(i));
+        }
+
+        Usuario usuario = new Usuario("usuario", "secreto", "usuario@correo.com", "Nombre", "Apellido");
+        usuario.setId(1L);
+        carrito = new Carrito();
+        carrito.setId(1L);
+        carrito.setUsuario(usuario);
+        for (int i = 0; i < ITEMS_POR_CARRITO; i++) {
+            ItemCarrito item = new ItemCarrito();
+            item.setId((long) i + 1);
+            item.setCarrito(carrito);
+            item.setProducto(productos.get(i));
+            item.setCantidad(2);
+            item.setPrecioUnitario(productos.get(i).getPrecio());
+            item.setSubtotal(productos.get(i).getPrecio().multiply(BigDecimal.valueOf(2)));
+            carrito.getItems().add(item);
+        }
+    }
+
+    @Benchmark
+    public List<ProductoDTO> paginaCatalogoModelMapper() {
+        List<ProductoDTO> resultado = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            resultado.add(modelMapper.map(producto, ProductoDTO.class));
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public List<ProductoDTO> paginaCatalogoMapStruct() {
+        List<ProductoDTO> resultado = new ArrayList<>(productos.size());
+        for (Producto producto : productos) {
+            resultado.add(ProductoMapper.INSTANCE.toDto(producto));
+        }
+        return resultado;
+    }
+
+    @Benchmark
+    public CarritoDTO carritoModelMapper() {
+        // Réplica de la conversión anterior de CarritoServiceImpl
+        CarritoDTO carritoDTO = modelMapper.map(carrito, CarritoDTO.class);
+        List<ItemCarritoDTO> items = new ArrayList<>();
+        for (ItemCarrito item : carrito.getItems()) {
+            ItemCarritoDTO itemDTO = modelMapper.map(item, ItemCarritoDTO.class);
+            itemDTO.setProductoId(item.getProducto().getId());
+            itemDTO.setNombreProducto(item.getProducto().getNombre());
+            itemDTO.setPrecioUnitario(item.getProducto().getPrecio());
+            items.add(itemDTO);
+        }
+        carritoDTO.setItems(items);
+        return carritoDTO;
+    }
+
+    @Benchmark
+    public CarritoDTO carritoMapStruct() {
+        return CarritoMapper.INSTANCE.toDto(carrito);
+    }
+
+    private static Producto crearProducto(long id) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setNombre("Camiseta " + id);
+        producto.setDescripcion("Camiseta de algodón con estampado número " + id);
+        producto.setPrecio(BigDecimal.valueOf(19.99 + id));
+        producto.setStock(50);
+        producto.setCategoria(Categoria.values()[(int) (id % Categoria.values().length)]);
+        producto.setTipoPrenda("Camiseta");
+        producto.setFranquicia("Franquicia");
+        producto.setTalla("M");
+        producto.setColor("Negro");
+        producto.setMaterial("Algodón");
+        producto.setImagenUrl("https://example.com/imagen" + id + ".jpg");
+        producto.setFechaCreacion(LocalDateTime.now());
+        return producto;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
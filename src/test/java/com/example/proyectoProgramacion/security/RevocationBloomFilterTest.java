@@ -0,0 +1,86 @@
+package com.example.proyectoProgramacion.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link RevocationBloomFilter}: sin falsos negativos y con una tasa de falsos
+ * positivos cercana a la configurada.
+ */
+class RevocationBloomFilterTest {
+
+    @Test
+    void unFiltroVacioNoContieneNada() {
+        RevocationBloomFilter filtro = new RevocationBloomFilter(1_000, 0.01);
+
+        assertFalse(filtro.puedeContener(UUID.randomUUID().toString()));
+        assertFalse(filtro.puedeContener(""));
+    }
+
+    @Test
+    void todoLoAgregadoPuedeEstarContenido() {
+        RevocationBloomFilter filtro = new RevocationBloomFilter(10_000, 0.01);
+        List<String> revocados = identificadores(10_000);
+
+        revocados.forEach(filtro::agregar);
+
+        assertTrue(revocados.stream().allMatch(filtro::puedeContener));
+    }
+
+    @Test
+    void laTasaDeFalsosPositivosSeAcercaALaConfigurada() {
+        double tasa = 0.01;
+        RevocationBloomFilter filtro = new RevocationBloomFilter(10_000, tasa);
+        identificadores(10_000).forEach(filtro::agregar);
+
+        List<String> ajenos = identificadores(100_000);
+        long falsosPositivos = ajenos.stream().filter(filtro::puedeContener).count();
+
+        // Margen amplio para que la prueba no dependa de los UUID generados
+        double observada = (double) falsosPositivos / ajenos.size();
+        assertTrue(observada < tasa * 2, "Tasa de falsos positivos observada: " + observada);
+    }
+
+    @Test
+    void lasInsercionesConcurrentesNoPierdenBits() throws Exception {
+        RevocationBloomFilter filtro = new RevocationBloomFilter(40_000, 0.01);
+        int hilos = 8;
+        List<List<String>> lotes = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            lotes.add(identificadores(5_000));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (List<String> lote : lotes) {
+                tareas.add(executor.submit(() -> lote.forEach(filtro::agregar)));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(lotes.stream().flatMap(List::stream).allMatch(filtro::puedeContener));
+    }
+
+    private static List<String> identificadores(int cantidad) {
+        List<String> ids = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids.add(UUID.randomUUID().toString());
+        }
+        return ids;
+    }
+}
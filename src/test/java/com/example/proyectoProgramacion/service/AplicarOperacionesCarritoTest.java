@@ -0,0 +1,78 @@
+package com.example.proyectoProgramacion.service;
+
+import com.example.proyectoProgramacion.model.dto.carrito.CarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.carrito.OperacionCarritoDTO;
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.model.entity.Usuario;
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import com.example.proyectoProgramacion.model.enums.TipoOperacionCarrito;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import com.example.proyectoProgramacion.repository.UsuarioRepository;
+import com.example.proyectoProgramacion.service.interfaces.CarritoService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que un lote que elimina una línea del carrito y vuelve a agregar el mismo producto
+ * no choca con la restricción única (carrito, producto) y deja una sola línea con la cantidad nueva.
+ * Necesita la misma base de datos PostgreSQL que {@code ProyectoProgramacionApplicationTests}.
+ */
+@SpringBootTest
+@Transactional
+class AplicarOperacionesCarritoTest {
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void eliminarYVolverAAgregarElMismoProductoEnUnLote() {
+        Usuario usuario = usuarioRepository.save(new Usuario("lote_carrito", "secreto",
+                "lote_carrito@correo.com", "Nombre", "Apellido"));
+
+        Producto producto = new Producto();
+        producto.setNombre("Producto lote carrito");
+        producto.setDescripcion("Producto de prueba para operaciones por lotes");
+        producto.setPrecio(BigDecimal.TEN);
+        producto.setStock(10);
+        producto.setCategoria(Categoria.values()[0]);
+        productoRepository.save(producto);
+        entityManager.flush();
+
+        ItemCarritoDTO item = new ItemCarritoDTO();
+        item.setProductoId(producto.getId());
+        item.setCantidad(2);
+        carritoService.agregarProductoAlCarrito(usuario.getId(), item);
+        entityManager.flush();
+        entityManager.clear();
+        Long itemId = carritoService.obtenerCarritoPorUsuario(usuario.getId()).getItems().get(0).getId();
+
+        carritoService.aplicarOperaciones(usuario.getId(), List.of(
+                new OperacionCarritoDTO(TipoOperacionCarrito.ELIMINAR, null, itemId, null),
+                new OperacionCarritoDTO(TipoOperacionCarrito.AGREGAR, producto.getId(), null, 3)));
+        entityManager.flush();
+        entityManager.clear();
+
+        CarritoDTO resultado = carritoService.obtenerCarritoPorUsuario(usuario.getId());
+        assertEquals(1, resultado.getItems().size());
+        assertEquals(3, resultado.getItems().get(0).getCantidad());
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(resultado.getTotal()));
+    }
+}
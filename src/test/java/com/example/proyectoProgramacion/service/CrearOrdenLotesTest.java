@@ -0,0 +1,170 @@
+package com.example.proyectoProgramacion.service;
+
+import com.example.proyectoProgramacion.model.dto.carrito.ItemCarritoDTO;
+import com.example.proyectoProgramacion.model.dto.orden.OrdenDTO;
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.model.entity.Usuario;
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import com.example.proyectoProgramacion.repository.UsuarioRepository;
+import com.example.proyectoProgramacion.service.interfaces.CarritoService;
+import com.example.proyectoProgramacion.service.interfaces.OrdenService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba que los detalles de una orden grande se insertan en lotes JDBC: el número de
+ * viajes a la base de datos depende de {@code hibernate.jdbc.batch_size}, no del número de líneas.
+ * Necesita la misma base de datos PostgreSQL que {@code ProyectoProgramacionApplicationTests}
+ * y que {@code crearOrden} asigne el número de orden ({@code GeneradorNumeroOrden}): la columna
+ * es obligatoria y sin él la orden no se puede insertar.
+ */
+@SpringBootTest
+@Transactional
+class CrearOrdenLotesTest {
+
+    private static final int LINEAS = 120;
+    private static final int TAMANO_LOTE = 50;
+
+    // Ejecuciones (executeUpdate o executeBatch) de sentencias INSERT sobre detalles_orden
+    private static final AtomicInteger INSERCIONES_DETALLE = new AtomicInteger();
+
+    @Autowired
+    private OrdenService ordenService;
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void losDetallesDeUnaOrdenGrandeSeInsertanEnLotes() {
+        Usuario usuario = usuarioRepository.save(new Usuario("lotes_orden", "secreto",
+                "lotes_orden@correo.com", "Nombre", "Apellido"));
+
+        List<Producto> productos = new ArrayList<>();
+        for (int i = 0; i < LINEAS; i++) {
+            productos.add(crearProducto(i));
+        }
+        productoRepository.saveAll(productos);
+        entityManager.flush();
+
+        for (Producto producto : productos) {
+            ItemCarritoDTO item = new ItemCarritoDTO();
+            item.setProductoId(producto.getId());
+            item.setCantidad(1);
+            carritoService.agregarProductoAlCarrito(usuario.getId(), item);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        INSERCIONES_DETALLE.set(0);
+        OrdenDTO orden = ordenService.crearOrden(usuario.getId(), "Calle Lotes 1");
+        entityManager.flush();
+
+        Long detalles = entityManager.createQuery(
+                        "SELECT COUNT(d) FROM DetalleOrden d WHERE d.orden.id = :ordenId", Long.class)
+                .setParameter("ordenId", orden.getId())
+                .getSingleResult();
+        assertEquals(LINEAS, detalles.intValue());
+        int esperadas = (LINEAS + TAMANO_LOTE - 1) / TAMANO_LOTE;
+        assertTrue(INSERCIONES_DETALLE.get() <= esperadas,
+                "Se esperaban como máximo " + esperadas + " viajes para insertar " + LINEAS
+                        + " detalles y hubo " + INSERCIONES_DETALLE.get());
+    }
+
+    private static Producto crearProducto(int indice) {
+        Producto producto = new Producto();
+        producto.setNombre("Producto lote " + indice);
+        producto.setDescripcion("Producto de prueba para inserciones por lotes");
+        producto.setPrecio(BigDecimal.valueOf(10 + indice));
+        producto.setStock(10);
+        producto.setCategoria(Categoria.values()[indice % Categoria.values().length]);
+        return producto;
+    }
+
+    @TestConfiguration
+    static class ContadorSentencias {
+
+        @Bean
+        static BeanPostProcessor contadorInsercionesDetalle() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? envolver(dataSource) : bean;
+                }
+            };
+        }
+
+        private static DataSource envolver(DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (metodo, resultado, args) ->
+                    resultado instanceof Connection conexion ? envolver(conexion) : resultado);
+        }
+
+        private static Connection envolver(Connection conexion) {
+            return proxy(Connection.class, conexion, (metodo, resultado, args) -> {
+                if (resultado instanceof PreparedStatement sentencia && metodo.equals("prepareStatement")
+                        && args[0] instanceof String sql
+                        && sql.trim().toLowerCase(Locale.ROOT).startsWith("insert into detalles_orden")) {
+                    return contar(sentencia);
+                }
+                return resultado;
+            });
+        }
+
+        private static PreparedStatement contar(PreparedStatement sentencia) {
+            return proxy(PreparedStatement.class, sentencia, (metodo, resultado, args) -> {
+                if (metodo.equals("executeBatch") || metodo.equals("executeUpdate")
+                        || metodo.equals("execute") || metodo.equals("executeLargeBatch")) {
+                    INSERCIONES_DETALLE.incrementAndGet();
+                }
+                return resultado;
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> tipo, T destino, Interceptor interceptor) {
+            InvocationHandler handler = (p, metodo, args) -> {
+                try {
+                    return interceptor.despues(metodo.getName(), metodo.invoke(destino, args), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, handler);
+        }
+
+        @FunctionalInterface
+        private interface Interceptor {
+            Object despues(String metodo, Object resultado, Object[] args);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.proyectoProgramacion.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link GeneradorNumeroOrden}: formato, orden alfabético igual al de creación,
+ * unicidad entre hilos y entre nodos. No necesita base de datos.
+ */
+class GeneradorNumeroOrdenTest {
+
+    private static final String ALFABETO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void elNumeroTieneAnchoFijoYUsaBase32DeCrockford() {
+        String numero = new GeneradorNumeroOrden(7).siguiente();
+
+        assertEquals(17, numero.length());
+        assertTrue(numero.startsWith("ORD-"), numero);
+        assertTrue(numero.substring(4).chars().allMatch(c -> ALFABETO.indexOf(c) >= 0), numero);
+        assertEquals(7, nodo(numero));
+    }
+
+    @Test
+    void losNumerosConsecutivosSonCrecientesAunqueSeAgoteLaSecuencia() {
+        GeneradorNumeroOrden generador = new GeneradorNumeroOrden(0);
+
+        // Más de 4096 números seguidos: la secuencia de un milisegundo se agota y pasa al siguiente
+        String anterior = generador.siguiente();
+        for (int i = 0; i < 10_000; i++) {
+            String numero = generador.siguiente();
+            assertTrue(numero.compareTo(anterior) > 0, anterior + " >= " + numero);
+            anterior = numero;
+        }
+    }
+
+    @Test
+    void losNumerosSonUnicosEntreHilos() throws Exception {
+        GeneradorNumeroOrden generador = new GeneradorNumeroOrden(1);
+        Set<String> numeros = ConcurrentHashMap.newKeySet();
+        int hilos = 8;
+        int porHilo = 5_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                tareas.add(executor.submit(() -> {
+                    for (int j = 0; j < porHilo; j++) {
+                        numeros.add(generador.siguiente());
+                    }
+                }));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(hilos * porHilo, numeros.size());
+    }
+
+    @Test
+    void nodosDistintosNoGeneranElMismoNumero() {
+        GeneradorNumeroOrden nodoA = new GeneradorNumeroOrden(2);
+        GeneradorNumeroOrden nodoB = new GeneradorNumeroOrden(3);
+
+        Set<String> numeros = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(numeros.add(nodoA.siguiente()));
+            assertTrue(numeros.add(nodoB.siguiente()));
+        }
+    }
+
+    @Test
+    void rechazaNodosFueraDeRango() {
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorNumeroOrden(-1));
+        assertThrows(IllegalArgumentException.class, () -> new GeneradorNumeroOrden(1024));
+    }
+
+    // Decodifica el número y extrae los 10 bits de nodo, entre la secuencia y los milisegundos
+    private static long nodo(String numero) {
+        long valor = 0;
+        for (char c : numero.substring(4).toCharArray()) {
+            valor = (valor << 5) | ALFABETO.indexOf(c);
+        }
+        return (valor >>> 12) & 1023;
+    }
+}
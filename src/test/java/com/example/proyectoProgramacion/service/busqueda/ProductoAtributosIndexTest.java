@@ -0,0 +1,303 @@
+package com.example.proyectoProgramacion.service.busqueda;
+
+import com.example.proyectoProgramacion.model.dto.producto.FiltroCatalogoDTO;
+import com.example.proyectoProgramacion.model.entity.Producto;
+import com.example.proyectoProgramacion.model.enums.Categoria;
+import com.example.proyectoProgramacion.repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compara los resultados de {@link ProductoAtributosIndex#filtrar} (IDs en orden y recuentos por
+ * faceta) con un filtrado por fuerza bruta sobre el mismo catálogo, con filtros y órdenes aleatorios.
+ */
+class ProductoAtributosIndexTest {
+
+    private static final int PRODUCTOS = 300;
+    private static final int FILTROS = 500;
+
+    private static final String[] TIPOS = {"Camiseta", "Sudadera", "Gorra", null};
+    private static final String[] FRANQUICIAS = {"Naruto", "Zelda", "Marvel", "Pokemon", null};
+    private static final String[] TALLAS = {"S", "M", "L", "XL", null};
+    private static final String[] COLORES = {"Negro", "Blanco", "Rojo", null};
+    private static final String[] MATERIALES = {"Algodón", "Poliéster", null};
+    private static final String[] NOMBRES = {"Alfa", "Beta", "Gamma", "Delta", "Épsilon", null};
+
+    private static final List<Sort> ORDENES = List.of(
+            Sort.unsorted(),
+            Sort.by("nombre"),
+            Sort.by(Sort.Direction.DESC, "precio"),
+            Sort.by("fechaCreacion"),
+            Sort.by(Sort.Order.asc("precio"), Sort.Order.desc("nombre")),
+            Sort.by(Sort.Order.desc("fechaCreacion"), Sort.Order.asc("id")),
+            Sort.by("stock"));
+
+    // Facetas en el orden en que las devuelve el índice
+    private static final Map<String, Function<Producto, String>> FACETAS = new LinkedHashMap<>();
+
+    static {
+        FACETAS.put("categoria", p -> p.getCategoria() != null ? p.getCategoria().name() : null);
+        FACETAS.put("tipoPrenda", Producto::getTipoPrenda);
+        FACETAS.put("franquicia", Producto::getFranquicia);
+        FACETAS.put("talla", Producto::getTalla);
+        FACETAS.put("color", Producto::getColor);
+        FACETAS.put("material", Producto::getMaterial);
+    }
+
+    private final Random random = new Random(42);
+    private final Map<Long, Producto> catalogo = new LinkedHashMap<>();
+    private ProductoAtributosIndex index;
+
+    @BeforeEach
+    void construirIndice() {
+        for (long id = 1; id <= PRODUCTOS; id++) {
+            catalogo.put(id, productoAleatorio(id));
+        }
+
+        ProductoRepository repositorio = mock(ProductoRepository.class);
+        when(repositorio.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(new ArrayList<>(catalogo.values())));
+        index = new ProductoAtributosIndex(repositorio);
+        index.reconstruir();
+        assertTrue(index.estaListo());
+    }
+
+    @Test
+    void coincideConElFiltradoPorFuerzaBruta() {
+        comprobarFiltrosAleatorios();
+    }
+
+    @Test
+    void coincideTrasCambiosIncrementales() {
+        for (int i = 0; i < 100; i++) {
+            long id = 1 + random.nextInt(PRODUCTOS + 20);
+            if (random.nextInt(4) == 0) {
+                catalogo.remove(id);
+                index.eliminar(id);
+            } else {
+                Producto producto = productoAleatorio(id);
+                catalogo.put(id, producto);
+                index.indexar(producto);
+            }
+        }
+        comprobarFiltrosAleatorios();
+    }
+
+    @Test
+    void noRespondeFiltrosConInactivosNiTextoSinResolver() {
+        FiltroCatalogoDTO todos = new FiltroCatalogoDTO();
+        todos.setActivo(null);
+        assertFalse(index.filtrar(todos, null, Sort.unsorted()).isPresent());
+
+        FiltroCatalogoDTO conTexto = new FiltroCatalogoDTO();
+        conTexto.setTexto("camiseta");
+        assertFalse(index.filtrar(conTexto, null, Sort.unsorted()).isPresent());
+    }
+
+    private void comprobarFiltrosAleatorios() {
+        for (int i = 0; i < FILTROS; i++) {
+            FiltroCatalogoDTO filtro = filtroAleatorio();
+            List<Long> idsPorTexto = random.nextInt(3) == 0 ? idsPorTextoAleatorios() : null;
+            Sort sort = ORDENES.get(random.nextInt(ORDENES.size()));
+            String caso = "filtro " + filtro + ", texto " + idsPorTexto + ", orden " + sort;
+
+            ProductoAtributosIndex.Resultado resultado = index.filtrar(filtro, idsPorTexto, sort).orElseThrow();
+
+            assertEquals(idsEsperados(filtro, idsPorTexto, sort), resultado.ids(), caso);
+            assertEquals(facetasEsperadas(filtro, idsPorTexto), comoListas(resultado.facetas()), caso);
+        }
+    }
+
+    private List<Long> idsEsperados(FiltroCatalogoDTO filtro, List<Long> idsPorTexto, Sort sort) {
+        List<Producto> coincidencias = candidatos(idsPorTexto).stream()
+                .filter(p -> cumpleBase(p, filtro))
+                .filter(p -> FACETAS.keySet().stream().allMatch(faceta -> cumpleFaceta(p, filtro, faceta)))
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        Comparator<Producto> orden = comparador(sort);
+        if (orden != null) {
+            coincidencias.sort(orden.thenComparing(Producto::getId));
+        } else if (idsPorTexto == null) {
+            coincidencias.sort(Comparator.comparing(Producto::getNombre, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+                    .thenComparing(Producto::getId));
+        }
+        return coincidencias.stream().map(Producto::getId).toList();
+    }
+
+    private Map<String, List<Map.Entry<String, Long>>> facetasEsperadas(FiltroCatalogoDTO filtro, List<Long> idsPorTexto) {
+        Map<String, List<Map.Entry<String, Long>>> facetas = new LinkedHashMap<>();
+        for (Map.Entry<String, Function<Producto, String>> faceta : FACETAS.entrySet()) {
+            Map<String, Long> recuentos = candidatos(idsPorTexto).stream()
+                    .filter(p -> cumpleBase(p, filtro))
+                    .filter(p -> FACETAS.keySet().stream()
+                            .filter(otra -> !otra.equals(faceta.getKey()))
+                            .allMatch(otra -> cumpleFaceta(p, filtro, otra)))
+                    .map(faceta.getValue())
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+            List<Map.Entry<String, Long>> ordenados = new ArrayList<>(recuentos.entrySet().stream()
+                    .map(e -> Map.entry(e.getKey(), e.getValue()))
+                    .toList());
+            ordenados.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+            facetas.put(faceta.getKey(), ordenados);
+        }
+        return facetas;
+    }
+
+    private List<Producto> candidatos(List<Long> idsPorTexto) {
+        if (idsPorTexto == null) {
+            return catalogo.values().stream().filter(Producto::isActivo).toList();
+        }
+        return idsPorTexto.stream()
+                .map(catalogo::get)
+                .filter(Objects::nonNull)
+                .filter(Producto::isActivo)
+                .toList();
+    }
+
+    private static boolean cumpleBase(Producto producto, FiltroCatalogoDTO filtro) {
+        return (filtro.getPrecioMin() == null || producto.getPrecio().compareTo(filtro.getPrecioMin()) >= 0)
+                && (filtro.getPrecioMax() == null || producto.getPrecio().compareTo(filtro.getPrecioMax()) <= 0)
+                && (filtro.getDestacado() == null || producto.isDestacado() == filtro.getDestacado());
+    }
+
+    private static boolean cumpleFaceta(Producto producto, FiltroCatalogoDTO filtro, String faceta) {
+        String valor = switch (faceta) {
+            case "categoria" -> filtro.getCategoria() != null ? filtro.getCategoria().name() : null;
+            case "tipoPrenda" -> filtro.getTipoPrenda();
+            case "franquicia" -> filtro.getFranquicia();
+            case "talla" -> filtro.getTalla();
+            case "color" -> filtro.getColor();
+            case "material" -> filtro.getMaterial();
+            default -> throw new IllegalArgumentException(faceta);
+        };
+        return valor == null || valor.trim().equals(FACETAS.get(faceta).apply(producto));
+    }
+
+    private static Comparator<Producto> comparador(Sort sort) {
+        Comparator<Producto> resultado = null;
+        for (Sort.Order orden : sort) {
+            Comparator<Producto> campo = switch (orden.getProperty()) {
+                case "nombre" -> Comparator.comparing(Producto::getNombre, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+                case "precio" -> Comparator.comparing(Producto::getPrecio);
+                case "fechaCreacion" -> Comparator.comparing(Producto::getFechaCreacion,
+                        Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()));
+                case "id" -> Comparator.comparing(Producto::getId);
+                default -> null;
+            };
+            if (campo != null) {
+                campo = orden.isDescending() ? campo.reversed() : campo;
+                resultado = resultado == null ? campo : resultado.thenComparing(campo);
+            }
+        }
+        return resultado;
+    }
+
+    private static Map<String, List<Map.Entry<String, Long>>> comoListas(Map<String, Map<String, Long>> facetas) {
+        Map<String, List<Map.Entry<String, Long>>> listas = new LinkedHashMap<>();
+        facetas.forEach((faceta, recuentos) -> listas.put(faceta, recuentos.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue()))
+                .toList()));
+        return listas;
+    }
+
+    private Producto productoAleatorio(long id) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setNombre(elegir(NOMBRES));
+        producto.setPrecio(BigDecimal.valueOf(100 + random.nextInt(5_000), 2));
+        producto.setCategoria(random.nextInt(8) == 0 ? null : elegir(Categoria.values()));
+        producto.setTipoPrenda(elegir(TIPOS));
+        producto.setFranquicia(elegir(FRANQUICIAS));
+        producto.setTalla(elegir(TALLAS));
+        producto.setColor(elegir(COLORES));
+        producto.setMaterial(elegir(MATERIALES));
+        producto.setDestacado(random.nextInt(5) == 0);
+        producto.setActivo(random.nextInt(6) != 0);
+        producto.setFechaCreacion(random.nextInt(10) == 0 ? null
+                : LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(random.nextInt(24 * 30)));
+        return producto;
+    }
+
+    private FiltroCatalogoDTO filtroAleatorio() {
+        FiltroCatalogoDTO filtro = new FiltroCatalogoDTO();
+        if (random.nextInt(4) == 0) {
+            filtro.setCategoria(elegir(Categoria.values()));
+        }
+        if (random.nextInt(4) == 0) {
+            filtro.setTipoPrenda(elegirValor(TIPOS));
+        }
+        if (random.nextInt(4) == 0) {
+            filtro.setFranquicia(elegirValor(FRANQUICIAS));
+        }
+        if (random.nextInt(4) == 0) {
+            // Con espacios: el índice recorta el valor, como la consulta en base de datos
+            filtro.setTalla(" " + elegirValor(TALLAS) + " ");
+        }
+        if (random.nextInt(4) == 0) {
+            filtro.setColor(random.nextInt(5) == 0 ? "Violeta" : elegirValor(COLORES));
+        }
+        if (random.nextInt(4) == 0) {
+            filtro.setMaterial(elegirValor(MATERIALES));
+        }
+        if (random.nextInt(3) == 0) {
+            filtro.setPrecioMin(BigDecimal.valueOf(100 + random.nextInt(5_000), 2));
+        }
+        if (random.nextInt(3) == 0) {
+            filtro.setPrecioMax(BigDecimal.valueOf(100 + random.nextInt(5_000), 2));
+        }
+        if (random.nextInt(3) == 0) {
+            filtro.setDestacado(random.nextBoolean());
+        }
+        return filtro;
+    }
+
+    // IDs ordenados "por relevancia": un subconjunto barajado, con algún ID que no existe
+    private List<Long> idsPorTextoAleatorios() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= PRODUCTOS + 20; id++) {
+            if (random.nextInt(3) == 0) {
+                ids.add(id);
+            }
+        }
+        Collections.shuffle(ids, random);
+        return ids;
+    }
+
+    private <T> T elegir(T[] valores) {
+        return valores[random.nextInt(valores.length)];
+    }
+
+    private String elegirValor(String[] valores) {
+        String valor;
+        do {
+            valor = elegir(valores);
+        } while (valor == null);
+        return valor;
+    }
+}
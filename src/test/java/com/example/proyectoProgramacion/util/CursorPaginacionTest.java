@@ -0,0 +1,110 @@
+package com.example.proyectoProgramacion.util;
+
+import com.example.proyectoProgramacion.exception.BusinessException;
+import com.example.proyectoProgramacion.model.dto.comun.PaginaCursorDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link CursorPaginacion}: ida y vuelta del cursor y rechazo de tokens manipulados.
+ */
+class CursorPaginacionTest {
+
+    private static final Set<String> PERMITIDAS = Set.of("precio", "fechaCreacion", "nombre");
+    private static final Sort POR_DEFECTO = Sort.by(Sort.Direction.DESC, "fechaCreacion");
+
+    @Test
+    void sinCursorUsaElOrdenSolicitadoLimitadoALasPropiedadesPermitidas() {
+        Sort solicitado = Sort.by(Sort.Order.asc("password"), Sort.Order.desc("precio"));
+
+        CursorPaginacion.Cursor cursor = CursorPaginacion.leer(null, solicitado, POR_DEFECTO, PERMITIDAS);
+
+        assertEquals(Sort.by(Sort.Order.desc("precio")), cursor.orden());
+        assertTrue(cursor.posicion().isInitial());
+        assertEquals(POR_DEFECTO,
+                CursorPaginacion.leer("", Sort.by("password"), POR_DEFECTO, PERMITIDAS).orden());
+    }
+
+    @Test
+    void elCursorDeLaSiguientePaginaConservaOrdenYClaves() {
+        Sort orden = Sort.by(Sort.Order.desc("precio"), Sort.Order.asc("fechaCreacion"));
+        Map<String, Object> claves = new LinkedHashMap<>();
+        claves.put("precio", new BigDecimal("9.50"));
+        claves.put("fechaCreacion", LocalDateTime.of(2025, 3, 14, 15, 9, 26));
+        claves.put("id", 4L);
+
+        PaginaCursorDTO<String> pagina = CursorPaginacion.pagina(
+                Window.from(List.of("a", "b"), i -> ScrollPosition.forward(claves), true), orden);
+
+        assertTrue(pagina.isHayMas());
+        CursorPaginacion.Cursor cursor =
+                CursorPaginacion.leer(pagina.getSiguiente(), Sort.unsorted(), POR_DEFECTO, PERMITIDAS);
+        assertEquals(orden, cursor.orden());
+        assertEquals(claves, cursor.posicion().getKeys());
+    }
+
+    @Test
+    void laUltimaPaginaNoTieneCursor() {
+        PaginaCursorDTO<String> pagina = CursorPaginacion.pagina(
+                Window.from(List.of("a"), i -> ScrollPosition.forward(Map.of("id", 1L)), false), POR_DEFECTO);
+
+        assertFalse(pagina.isHayMas());
+        assertNull(pagina.getSiguiente());
+    }
+
+    @Test
+    void rechazaCursoresManipulados() {
+        // Propiedad no permitida en el orden
+        assertInvalido("{\"orden\":[\"password:ASC\"],\"claves\":{\"password\":[\"S\",\"x\"],\"id\":[\"L\",\"4\"]}}");
+        // Claves que no coinciden con el orden
+        assertInvalido("{\"orden\":[\"precio:DESC\"],\"claves\":{\"id\":[\"L\",\"4\"]}}");
+        assertInvalido("{\"orden\":[\"precio:DESC\"],\"claves\":{\"precio\":[\"D\",\"9.5\"],\"nombre\":[\"S\",\"a\"],\"id\":[\"L\",\"4\"]}}");
+        // Tipo desconocido, valor nulo o con formato incorrecto
+        assertInvalido("{\"orden\":[\"precio:DESC\"],\"claves\":{\"precio\":[\"X\",\"9.5\"],\"id\":[\"L\",\"4\"]}}");
+        assertInvalido("{\"orden\":[\"precio:DESC\"],\"claves\":{\"precio\":[\"D\",null],\"id\":[\"L\",\"4\"]}}");
+        assertInvalido("{\"orden\":[\"precio:DESC\"],\"claves\":{\"precio\":[\"D\",\"caro\"],\"id\":[\"L\",\"4\"]}}");
+        // Dirección inválida o ausente
+        assertInvalido("{\"orden\":[\"precio:ARRIBA\"],\"claves\":{\"precio\":[\"D\",\"9.5\"],\"id\":[\"L\",\"4\"]}}");
+        assertInvalido("{\"orden\":[\"precio\"],\"claves\":{\"precio\":[\"D\",\"9.5\"],\"id\":[\"L\",\"4\"]}}");
+        // JSON incompleto y texto que no es Base64
+        assertInvalido("{\"orden\":[\"precio:DESC\"]}");
+        assertThrows(BusinessException.class,
+                () -> CursorPaginacion.leer("no es base64!", Sort.unsorted(), POR_DEFECTO, PERMITIDAS));
+    }
+
+    @Test
+    void aceptaUnCursorBienFormado() {
+        String token = codificar("{\"orden\":[\"precio:DESC\"],\"claves\":{\"precio\":[\"D\",\"9.5\"],\"id\":[\"L\",\"4\"]}}");
+
+        CursorPaginacion.Cursor cursor = CursorPaginacion.leer(token, Sort.unsorted(), POR_DEFECTO, PERMITIDAS);
+
+        assertEquals(Sort.by(Sort.Order.desc("precio")), cursor.orden());
+        assertEquals(Map.of("precio", new BigDecimal("9.5"), "id", 4L), cursor.posicion().getKeys());
+    }
+
+    private static void assertInvalido(String json) {
+        assertThrows(BusinessException.class,
+                () -> CursorPaginacion.leer(codificar(json), Sort.unsorted(), POR_DEFECTO, PERMITIDAS), json);
+    }
+
+    private static String codificar(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}